@@ -0,0 +1,88 @@
+package com.eyedia.eyedia.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * 요청 스레드(Tomcat)에서 떼어낸 작업들을 돌리는 전용 실행기.
+ * 모두 큐 크기가 정해져 있어 가득 차면 TaskRejectedException 으로 바로 거절된다.
+ */
+@Configuration
+public class AsyncConfig {
+
+    // 시선 영역 설명(detect-area) LLM 작업
+    @Bean(name = "detectAreaExecutor")
+    public ThreadPoolTaskExecutor detectAreaExecutor(
+            @Value("${eyedia.detectArea.poolSize:8}") int poolSize,
+            @Value("${eyedia.detectArea.queueCapacity:100}") int queueCapacity) {
+        return boundedExecutor("detect-area-", poolSize, queueCapacity);
+    }
+
+    // /chats/ask/stream 토큰 스트리밍 작업
+    @Bean(name = "docentStreamExecutor")
+    public ThreadPoolTaskExecutor docentStreamExecutor(
+            @Value("${eyedia.docentStream.poolSize:16}") int poolSize,
+            @Value("${eyedia.docentStream.queueCapacity:50}") int queueCapacity) {
+        return boundedExecutor("docent-stream-", poolSize, queueCapacity);
+    }
+
+    // 작품 등록 시 기본 도슨트 설명 사전 생성
+    @Bean(name = "docentPregenExecutor")
+    public ThreadPoolTaskExecutor docentPregenExecutor(
+            @Value("${eyedia.docent.pregen.poolSize:2}") int poolSize,
+            @Value("${eyedia.docent.pregen.queueCapacity:500}") int queueCapacity) {
+        return boundedExecutor("docent-pregen-", poolSize, queueCapacity);
+    }
+
+    // 대화 롤링 요약 갱신
+    @Bean(name = "docentMemoryExecutor")
+    public ThreadPoolTaskExecutor docentMemoryExecutor(
+            @Value("${eyedia.docent.memory.poolSize:2}") int poolSize,
+            @Value("${eyedia.docent.memory.queueCapacity:200}") int queueCapacity) {
+        return boundedExecutor("docent-memory-", poolSize, queueCapacity);
+    }
+
+    // 문장 단위 TTS 합성 (파이프라인 모드)
+    @Bean(name = "ttsExecutor")
+    public ThreadPoolTaskExecutor ttsExecutor(
+            @Value("${eyedia.tts.poolSize:4}") int poolSize,
+            @Value("${eyedia.tts.queueCapacity:100}") int queueCapacity) {
+        return boundedExecutor("tts-", poolSize, queueCapacity);
+    }
+
+    // 젯슨 푸시(SSE) 소켓 쓰기. 연결마다 한 번에 작업 하나만 올라가므로 큐는 연결 수만큼이면 충분
+    @Bean(name = "deviceStreamExecutor")
+    public ThreadPoolTaskExecutor deviceStreamExecutor(
+            @Value("${eyedia.device.stream.poolSize:4}") int poolSize,
+            @Value("${eyedia.device.stream.queueCapacity:10000}") int queueCapacity) {
+        return boundedExecutor("device-stream-", poolSize, queueCapacity);
+    }
+
+    // 오디오 가이드 일괄 사전 합성. 배치 진행 스레드 1개 + 동시 합성 parallelism 개
+    @Bean(name = "audioGuideExecutor")
+    public ThreadPoolTaskExecutor audioGuideExecutor(
+            @Value("${eyedia.audioGuide.parallelism:2}") int parallelism) {
+        return boundedExecutor("audio-guide-", parallelism + 1, parallelism);
+    }
+
+    // OpenAI 비스트리밍 호출 (전체 타임아웃 + 헤지 요청용). 헤지까지 감안해 벌크헤드 동시 호출 수의 2배 정도
+    @Bean(name = "llmCallExecutor")
+    public ThreadPoolTaskExecutor llmCallExecutor(
+            @Value("${eyedia.llm.call.poolSize:16}") int poolSize,
+            @Value("${eyedia.llm.call.queueCapacity:0}") int queueCapacity) {
+        return boundedExecutor("llm-call-", poolSize, queueCapacity);
+    }
+
+    private static ThreadPoolTaskExecutor boundedExecutor(String prefix, int poolSize, int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
@@ -12,12 +12,17 @@ public class OpenAIConfig {
 
     @Bean
     public OpenAIClient openAIClient(
-            @Value("${openai.api-key}") String apiKey) {
+            @Value("${openai.api-key}") String apiKey,
+            @Value("${openai.base-url:https://api.openai.com/v1}") String baseUrl,
+            @Value("${openai.timeout-seconds:20}") long timeoutSeconds,
+            @Value("${openai.max-retries:2}") int maxRetries) {
 
         return OpenAIOkHttpClient.builder()
                 .apiKey(apiKey)
-                .timeout(Duration.ofSeconds(20))
-                .maxRetries(2)
+                .baseUrl(baseUrl) // stub 프로필에서는 로컬 대역 서버로 교체
+                // 전체 대기 시간은 LlmHedger(callTimeoutMs)가 끊으므로 재시도는 짧게
+                .timeout(Duration.ofSeconds(timeoutSeconds))
+                .maxRetries(maxRetries)
                 .build();
     }
 }
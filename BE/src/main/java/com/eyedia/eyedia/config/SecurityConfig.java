@@ -4,6 +4,7 @@ import com.eyedia.eyedia.config.jwt.JwtAuthenticationFilter;
 import com.eyedia.eyedia.config.jwt.JwtProvider;
 import com.eyedia.eyedia.service.CustomOAuth2UserService;
 import com.eyedia.eyedia.service.CustomOidcUserService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -74,6 +75,13 @@ public class SecurityConfig {
                         // 프리플라이트 허용
                         .requestMatchers(HttpMethod.OPTIONS, "/**").permitAll()
 
+                        // 롱폴링/스트리밍 응답의 async 재디스패치 (원 요청에서 이미 인가됨, JWT 필터는 재디스패치에서 안 돈다)
+                        .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+
+                        // 운영용 엔드포인트 (아래 공개 경로보다 먼저 매칭)
+                        .requestMatchers("/api/v1/admin/**").authenticated()
+                        .requestMatchers(HttpMethod.POST, "/api/v1/paintings/*/docent-description/regenerate").authenticated()
+
                         // 공개 엔드포인트
                         .requestMatchers(
                                 "/api/v1/auth/signup",
@@ -90,8 +98,10 @@ public class SecurityConfig {
                                 "/api/v1/scraps/**",
                                 "/tts/**",
                                 "/api/v1/events/detect",
+                                "/api/v1/events/detect/batch",
                                 "/api/v1/events/detect-area",
                                 "/api/v1/chats/ask",
+                                "/api/v1/chats/ask/stream",
 
                                 // OAuth2 로그인 경로 허용
                                 "/oauth2/**", "/login/oauth2/**", "/oauth2/authorization/**"
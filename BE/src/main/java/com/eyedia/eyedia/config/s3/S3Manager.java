@@ -1,15 +1,20 @@
 package com.eyedia.eyedia.config.s3;
 
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.ListObjectsV2Request;
+import com.amazonaws.services.s3.model.ListObjectsV2Result;
 import com.amazonaws.services.s3.model.ObjectMetadata;
 import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.S3ObjectSummary;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.File;
 import java.io.IOException;
 import java.util.UUID;
+import java.util.function.Consumer;
 
 @Slf4j
 @Component
@@ -35,6 +40,43 @@ public class S3Manager {
         return amazonS3.getUrl(s3Config.getBucket(), keyName).toString();
     }
 
+    // 생성 미디어(TTS mp3 등) 업로드
+    public String uploadFile(String keyName, File file, String contentType, String cacheControl) {
+        ObjectMetadata objectMetadata = new ObjectMetadata();
+        objectMetadata.setContentLength(file.length());
+        objectMetadata.setContentType(contentType);
+        objectMetadata.setCacheControl(cacheControl);
+
+        amazonS3.putObject(new PutObjectRequest(s3Config.getBucket(), keyName, file)
+                .withMetadata(objectMetadata));
+        return getUrl(keyName);
+    }
+
+    public boolean exists(String keyName) {
+        return amazonS3.doesObjectExist(s3Config.getBucket(), keyName);
+    }
+
+    public void deleteFile(String keyName) {
+        amazonS3.deleteObject(s3Config.getBucket(), keyName);
+    }
+
+    public String getUrl(String keyName) {
+        return amazonS3.getUrl(s3Config.getBucket(), keyName).toString();
+    }
+
+    // prefix 아래 객체 전체 (1000개씩 페이지 단위로 조회)
+    public void listFiles(String prefix, Consumer<S3ObjectSummary> consumer) {
+        ListObjectsV2Request request = new ListObjectsV2Request()
+                .withBucketName(s3Config.getBucket())
+                .withPrefix(prefix);
+        ListObjectsV2Result result;
+        do {
+            result = amazonS3.listObjectsV2(request);
+            result.getObjectSummaries().forEach(consumer);
+            request.setContinuationToken(result.getNextContinuationToken());
+        } while (result.isTruncated());
+    }
+
     // 공백 → 언더스코어 치환
     private String sanitize(String value) {
         return value.replaceAll("\\s+", "_");
@@ -0,0 +1,282 @@
+package com.eyedia.eyedia.config.stub;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 부하 테스트용 OpenAI 대역 서버 (stub 프로필 전용).
+ * Responses API(일반/스트리밍)와 audio/speech 를 흉내 내며,
+ * 응답 본문은 입력에 따라 항상 같고(결정적) 지연·토큰 속도·에러 비율은 설정으로 조절한다.
+ * Tomcat 과 별도 포트/스레드에서 돌아서 앱의 요청 스레드를 잡아먹지 않는다.
+ */
+@Slf4j
+@Component
+@Profile("stub")
+public class OpenAiStubServer {
+
+    private static final List<String> CANNED_SENTENCES = List.of(
+            "이 작품은 빛과 그림자의 대비로 장면의 분위기를 만들어냅니다.",
+            "화면 왼쪽의 인물은 시선을 작품 중앙으로 자연스럽게 이끕니다.",
+            "붓질의 방향을 따라가 보면 작가가 강조하고 싶었던 부분이 드러납니다.",
+            "배경의 색감은 계절과 시간대를 짐작하게 해 줍니다.",
+            "작은 소품 하나하나에도 당시 생활상이 담겨 있습니다.",
+            "가까이에서 보면 물감의 두께가 만드는 질감도 느낄 수 있습니다.",
+            "어느 부분이 가장 먼저 눈에 들어오셨나요?"
+    );
+
+    private final ObjectMapper objectMapper;
+    private final int port;
+    private final LatencyModel latency;
+    private final double tokensPerSecond;
+    private final int answerSentences;
+    private final double errorRate;
+    private final int errorStatus;
+    private final Random random;
+
+    private final AtomicLong ids = new AtomicLong();
+    private HttpServer server;
+    private ExecutorService workers;
+    private byte[] cannedMp3;
+
+    public OpenAiStubServer(ObjectMapper objectMapper,
+                            @Value("${eyedia.stub.port:18080}") int port,
+                            @Value("${eyedia.stub.latency.distribution:LOGNORMAL}") Distribution distribution,
+                            @Value("${eyedia.stub.latency.medianMs:800}") long medianMs,
+                            @Value("${eyedia.stub.latency.spreadMs:300}") long spreadMs,
+                            @Value("${eyedia.stub.latency.sigma:0.5}") double sigma,
+                            @Value("${eyedia.stub.tokensPerSecond:40}") double tokensPerSecond,
+                            @Value("${eyedia.stub.answerSentences:4}") int answerSentences,
+                            @Value("${eyedia.stub.errorRate:0.0}") double errorRate,
+                            @Value("${eyedia.stub.errorStatus:500}") int errorStatus,
+                            @Value("${eyedia.stub.seed:42}") long seed) {
+        this.objectMapper = objectMapper;
+        this.port = port;
+        this.random = new Random(seed);
+        this.latency = new LatencyModel(distribution, medianMs, spreadMs, sigma);
+        this.tokensPerSecond = tokensPerSecond;
+        this.answerSentences = answerSentences;
+        this.errorRate = errorRate;
+        this.errorStatus = errorStatus;
+    }
+
+    @PostConstruct
+    public void start() throws IOException {
+        try (InputStream in = new ClassPathResource("static/tts/sample-ok.mp3").getInputStream()) {
+            cannedMp3 = in.readAllBytes();
+        }
+
+        workers = Executors.newCachedThreadPool();
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", port), 512);
+        server.setExecutor(workers);
+        server.createContext("/v1/responses", this::handleResponses);
+        server.createContext("/v1/audio/speech", this::handleSpeech);
+        server.start();
+        log.info("OpenAI stub server listening on http://127.0.0.1:{}/v1 ({})", port, latency);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (server != null) server.stop(0);
+        if (workers != null) workers.shutdownNow();
+    }
+
+    // ===== /v1/responses =====
+
+    @SuppressWarnings("unchecked")
+    private void handleResponses(HttpExchange ex) throws IOException {
+        try {
+            Map<String, Object> body = objectMapper.readValue(ex.getRequestBody(), Map.class);
+            sleep(latency.sample(random));
+            if (injectError(ex)) return;
+
+            String model = String.valueOf(body.getOrDefault("model", "stub-model"));
+            String input = objectMapper.writeValueAsString(body.get("input"));
+            String text = cannedAnswer(input);
+            List<String> tokens = tokenize(text);
+            long id = ids.incrementAndGet();
+
+            if (Boolean.TRUE.equals(body.get("stream"))) {
+                streamResponse(ex, id, model, input, text, tokens);
+            } else {
+                sleep((long) (tokens.size() * 1000 / tokensPerSecond));
+                writeJson(ex, 200, response(id, model, input, text, tokens.size(), "completed"));
+            }
+        } finally {
+            ex.close();
+        }
+    }
+
+    private void streamResponse(HttpExchange ex, long id, String model, String input,
+                                String text, List<String> tokens) throws IOException {
+        ex.getResponseHeaders().set("Content-Type", "text/event-stream");
+        ex.sendResponseHeaders(200, 0);
+        OutputStream out = ex.getResponseBody();
+        long seq = 0;
+        long gapMs = (long) (1000 / tokensPerSecond);
+
+        Map<String, Object> created = new LinkedHashMap<>();
+        created.put("type", "response.created");
+        created.put("sequence_number", seq++);
+        created.put("response", response(id, model, input, "", 0, "in_progress"));
+        writeEvent(out, created);
+
+        for (String token : tokens) {
+            sleep(gapMs);
+            Map<String, Object> delta = new LinkedHashMap<>();
+            delta.put("type", "response.output_text.delta");
+            delta.put("item_id", "msg_stub_" + id);
+            delta.put("output_index", 0);
+            delta.put("content_index", 0);
+            delta.put("delta", token);
+            delta.put("logprobs", List.of());
+            delta.put("sequence_number", seq++);
+            writeEvent(out, delta);
+        }
+
+        Map<String, Object> completed = new LinkedHashMap<>();
+        completed.put("type", "response.completed");
+        completed.put("sequence_number", seq);
+        completed.put("response", response(id, model, input, text, tokens.size(), "completed"));
+        writeEvent(out, completed);
+    }
+
+    private Map<String, Object> response(long id, String model, String input, String text,
+                                         int outputTokens, String status) {
+        int inputTokens = Math.max(1, input.length() / 3);
+
+        Map<String, Object> r = new LinkedHashMap<>();
+        r.put("id", "resp_stub_" + id);
+        r.put("object", "response");
+        r.put("created_at", Instant.now().getEpochSecond());
+        r.put("status", status);
+        r.put("error", null);
+        r.put("incomplete_details", null);
+        r.put("instructions", null);
+        r.put("metadata", Map.of());
+        r.put("model", model);
+        r.put("output", text.isEmpty() ? List.of() : List.of(Map.of(
+                "type", "message",
+                "id", "msg_stub_" + id,
+                "status", "completed",
+                "role", "assistant",
+                "content", List.of(Map.of(
+                        "type", "output_text",
+                        "text", text,
+                        "annotations", List.of(),
+                        "logprobs", List.of()))
+        )));
+        r.put("parallel_tool_calls", true);
+        r.put("temperature", 1.0);
+        r.put("tool_choice", "auto");
+        r.put("tools", List.of());
+        r.put("top_p", 1.0);
+        r.put("usage", Map.of(
+                "input_tokens", inputTokens,
+                "input_tokens_details", Map.of("cached_tokens", 0),
+                "output_tokens", outputTokens,
+                "output_tokens_details", Map.of("reasoning_tokens", 0),
+                "total_tokens", inputTokens + outputTokens));
+        return r;
+    }
+
+    // ===== /v1/audio/speech =====
+
+    private void handleSpeech(HttpExchange ex) throws IOException {
+        try {
+            ex.getRequestBody().readAllBytes();
+            sleep(latency.sample(random));
+            if (injectError(ex)) return;
+
+            ex.getResponseHeaders().set("Content-Type", "audio/mpeg");
+            ex.sendResponseHeaders(200, cannedMp3.length);
+            ex.getResponseBody().write(cannedMp3);
+        } finally {
+            ex.close();
+        }
+    }
+
+    // ===== helpers =====
+
+    // 같은 입력이면 항상 같은 답변 (해시로 시작 문장을 고름)
+    private String cannedAnswer(String input) {
+        int start = Math.floorMod(input.hashCode(), CANNED_SENTENCES.size() - 1);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < answerSentences; i++) {
+            if (i > 0) sb.append(' ');
+            sb.append(CANNED_SENTENCES.get((start + i) % (CANNED_SENTENCES.size() - 1)));
+        }
+        return sb.append(' ').append(CANNED_SENTENCES.get(CANNED_SENTENCES.size() - 1)).toString();
+    }
+
+    // 대략 한글 2~3글자를 토큰 하나로 취급
+    private static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        for (int i = 0; i < text.length(); i += 3) {
+            tokens.add(text.substring(i, Math.min(text.length(), i + 3)));
+        }
+        return tokens;
+    }
+
+    private boolean injectError(HttpExchange ex) throws IOException {
+        if (errorRate <= 0 || random.nextDouble() >= errorRate) return false;
+        writeJson(ex, errorStatus, Map.of("error", Map.of(
+                "message", "stub injected error",
+                "type", errorStatus == 429 ? "rate_limit_exceeded" : "server_error")));
+        return true;
+    }
+
+    private void writeEvent(OutputStream out, Map<String, Object> event) throws IOException {
+        String frame = "event: " + event.get("type") + "\n"
+                + "data: " + objectMapper.writeValueAsString(event) + "\n\n";
+        out.write(frame.getBytes(StandardCharsets.UTF_8));
+        out.flush();
+    }
+
+    private void writeJson(HttpExchange ex, int status, Object body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        ex.getResponseHeaders().set("Content-Type", "application/json");
+        ex.sendResponseHeaders(status, bytes.length);
+        ex.getResponseBody().write(bytes);
+    }
+
+    private static void sleep(long ms) {
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public enum Distribution { FIXED, UNIFORM, LOGNORMAL }
+
+    /** 첫 바이트까지의 지연 분포 */
+    private record LatencyModel(Distribution distribution, long medianMs, long spreadMs, double sigma) {
+        long sample(Random r) {
+            return switch (distribution) {
+                case FIXED -> medianMs;
+                case UNIFORM -> Math.max(0, medianMs - spreadMs + (long) (r.nextDouble() * 2 * spreadMs));
+                case LOGNORMAL -> (long) (medianMs * Math.exp(sigma * r.nextGaussian()));
+            };
+        }
+    }
+}
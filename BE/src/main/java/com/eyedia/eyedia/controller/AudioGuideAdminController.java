@@ -0,0 +1,33 @@
+package com.eyedia.eyedia.controller;
+
+import com.eyedia.eyedia.global.ApiResponse;
+import com.eyedia.eyedia.global.error.status.SuccessStatus;
+import com.eyedia.eyedia.service.tts.AudioGuidePrerenderService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/audio-guides")
+@RequiredArgsConstructor
+@Tag(name = "Audio Guide Admin Controller", description = "오디오 가이드 사전 합성 운영 API (로그인 필요)")
+public class AudioGuideAdminController {
+
+    private final AudioGuidePrerenderService audioGuidePrerenderService;
+
+    @Operation(summary = "오디오 가이드 일괄 사전 합성", description = "템플릿 작품 전체의 설명/기본 도슨트 설명을 TTS 로 미리 합성합니다. 중단됐던 지점부터 이어서 진행하며, restart=true 면 처음부터 다시 합니다. 이미 실행 중이면 현재 진행 상황만 돌려줍니다.")
+    @PostMapping("/prerender")
+    public ResponseEntity<ApiResponse<AudioGuidePrerenderService.Progress>> prerenderAudioGuides(
+            @RequestParam(defaultValue = "false") boolean restart) {
+        return ResponseEntity.accepted()
+                .body(ApiResponse.of(SuccessStatus._ACCEPTED, audioGuidePrerenderService.start(restart)));
+    }
+
+    @Operation(summary = "오디오 가이드 사전 합성 진행 상황", description = "처리한 작품 수, 합성/실패한 음성 수, 체크포인트를 조회합니다.")
+    @GetMapping("/prerender")
+    public ApiResponse<AudioGuidePrerenderService.Progress> audioGuideProgress() {
+        return ApiResponse.of(SuccessStatus._OK, audioGuidePrerenderService.progress());
+    }
+}
@@ -1,28 +1,26 @@
 package com.eyedia.eyedia.controller;
 
-import com.eyedia.eyedia.domain.Message;
-import com.eyedia.eyedia.domain.Painting;
-import com.eyedia.eyedia.domain.enums.SenderType;
 import com.eyedia.eyedia.dto.DetectAreaRequestDTO;
+import com.eyedia.eyedia.dto.DetectBatchDTO;
 import com.eyedia.eyedia.dto.MessageDTO;
 import com.eyedia.eyedia.global.ApiResponse;
 import com.eyedia.eyedia.global.error.exception.GeneralException;
 import com.eyedia.eyedia.global.error.status.ErrorStatus;
 import com.eyedia.eyedia.global.error.status.SuccessStatus;
-import com.eyedia.eyedia.repository.ExhibitionRepository;
-import com.eyedia.eyedia.repository.MessageRepository;
-import com.eyedia.eyedia.repository.PaintingRepository;
-import com.eyedia.eyedia.service.DocentChatService;
+import com.eyedia.eyedia.service.DetectAreaService;
+import com.eyedia.eyedia.service.PaintingCatalog;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.messaging.simp.SimpMessageSendingOperations;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/v1/events")
@@ -30,96 +28,80 @@ import java.util.stream.Collectors;
 
 public class DetectionEventController {
     private final SimpMessageSendingOperations messagingTemplate;
-    private final PaintingRepository paintingRepository;
-    private final ExhibitionRepository exhibitionRepository;
-    private final DocentChatService docentChatService;
-    private final MessageRepository messageRepository;
+    private final PaintingCatalog paintingCatalog;
+    private final DetectAreaService detectAreaService;
 
     @PostMapping("/detect")
     public ApiResponse<?> detect(@RequestBody Long artId) {
 
-        MessageDTO.ChatImageResponseDTO message;
+        // DB 대신 메모리 카탈로그에서 조회 (저장/삭제 시 PaintingService가 갱신)
+        var entry = paintingCatalog.find(artId)
+                .orElseThrow(() -> new GeneralException(ErrorStatus.PAINTING_NOT_FOUND));
 
-        var list = paintingRepository.findNullUserByArtId(artId);
-        if (list.isEmpty()) {
-            throw new GeneralException(ErrorStatus.PAINTING_NOT_FOUND);
-        } else if (list.size() > 1) {
-            List<Long> ids = list.stream().map(Painting::getPaintingId).toList();
-            throw new GeneralException(ErrorStatus.PAINTING_CONFLICT, Map.of("duplicatedPaintingIds", ids));
-        } else {
-            Painting painting = list.get(0);
-            var exhibition = exhibitionRepository.findByPaintingsPaintingId(painting.getPaintingId())
-                    .orElseThrow(() -> new GeneralException(ErrorStatus.EXHIBITION_NOT_FOUND));
+        MessageDTO.ChatImageResponseDTO message = toDetectedMessage(entry);
+        messagingTemplate.convertAndSend("/queue/events", message);
 
-            message = MessageDTO.ChatImageResponseDTO.builder()
-                    .paintingId(painting.getPaintingId())
-                    .imgUrl("https://s3-eyedia.s3.ap-northeast-2.amazonaws.com/"
-                            + exhibition.getExhibitionsId() + "/" + artId + "/" + artId + ".jpg")
-                    .title(painting.getTitle())
-                    .artist(painting.getArtist())
-                    .description(painting.getDescription())
-                    .exhibition(exhibition.getTitle())
-                    .artId(artId)
-                    .build();
-
-            messagingTemplate.convertAndSend("/queue/events", message);
-        }
         return ApiResponse.of(SuccessStatus._OK, message);
     }
 
-    @PostMapping("/detect-area")
-    public ApiResponse<?> detectArea(@RequestBody DetectAreaRequestDTO request) {
-
-        List<String> descriptions = request.getList().stream()
-                .map(DetectAreaRequestDTO.CropItemDTO::getCropDescription)
-                .toList();
-
-        String combined = descriptions.stream()
-                .map(desc -> "- " + desc)
-                .collect(Collectors.joining("\n"));
-
-        List<Painting> paintings = paintingRepository.findByArtId(request.getArtId());
-
-        if (paintings == null || paintings.isEmpty()) {
-            throw new GeneralException(ErrorStatus.PAINTING_NOT_FOUND);
+    // 여러 젯슨의 감지 결과를 한 번에 처리 (항목별 실패는 결과에 담고 전체는 계속 진행)
+    @PostMapping("/detect/batch")
+    public ApiResponse<DetectBatchDTO.BatchResponse> detectBatch(@RequestBody @Valid DetectBatchDTO.BatchRequest request) {
+
+        var items = request.getItems();
+        var entries = paintingCatalog.findAll(items.stream().map(DetectBatchDTO.Item::getArtId).toList());
+
+        List<DetectBatchDTO.ItemResult> results = new ArrayList<>(items.size());
+        int succeeded = 0;
+        for (DetectBatchDTO.Item item : items) {
+            var result = DetectBatchDTO.ItemResult.builder()
+                    .artId(item.getArtId())
+                    .deviceId(item.getDeviceId())
+                    .detectedAt(item.getDetectedAt());
+            try {
+                var entry = entries.get(item.getArtId());
+                if (entry == null) {
+                    throw new GeneralException(ErrorStatus.PAINTING_NOT_FOUND);
+                }
+                MessageDTO.ChatImageResponseDTO message = toDetectedMessage(entry);
+                messagingTemplate.convertAndSend("/queue/events", message);
+
+                result.success(true)
+                        .code(SuccessStatus._OK.getCode())
+                        .message(SuccessStatus._OK.getMessage())
+                        .data(message);
+                succeeded++;
+            } catch (GeneralException e) {
+                result.success(false)
+                        .code(e.getErrorReason().getCode())
+                        .message(e.getErrorReason().getMessage())
+                        .data(e.getData());
+            }
+            results.add(result.build());
         }
 
-        var answer = docentChatService.answer(
-                docentChatService.gazeAreaPrompt(
-                        paintings.get(0).getTitle(),
-                        request.getQ().get(0),
-                        combined));
-
-        MessageDTO.ChatAnswerDTO dto = null;
-        String imageUrl = "https://s3-eyedia.s3.ap-northeast-2.amazonaws.com/"
-                          + paintings.get(0).getExhibition().getExhibitionsId() + "/"
-                          + paintings.get(0).getArtId() + "/"
-                          + request.getQ().get(0) + ".jpg";
-
-        for (Painting painting : paintings) {
-            Message q = Message.builder()
-                    .sender(SenderType.USER)
-                    .painting(painting)
-                    .content(imageUrl)
-                    .build();
-            messageRepository.save(q);
-
-            Message a = Message.builder()
-                    .sender(SenderType.ASSISTANT)
-                    .painting(painting)
-                    .content(answer.text())
-                    .build();
-            messageRepository.save(a);
-
-             dto = MessageDTO.ChatAnswerDTO.builder()
-                    .paintingId(painting.getPaintingId())
-                    .answer(answer.text())
-                    .model(answer.model())
-                     .imgUrl(imageUrl)
-                    .build();
+        return ApiResponse.of(SuccessStatus._OK, DetectBatchDTO.BatchResponse.builder()
+                .total(items.size())
+                .succeeded(succeeded)
+                .failed(items.size() - succeeded)
+                .results(results)
+                .build());
+    }
 
-            messagingTemplate.convertAndSend("/room/" + painting.getPaintingId(), dto);
+    private MessageDTO.ChatImageResponseDTO toDetectedMessage(PaintingCatalog.Entry entry) {
+        if (entry.isConflict()) {
+            throw new GeneralException(ErrorStatus.PAINTING_CONFLICT, Map.of("duplicatedPaintingIds", entry.paintingIds()));
         }
-        return ApiResponse.of(SuccessStatus._OK, dto);
+        if (entry.exhibitionId() == null) {
+            throw new GeneralException(ErrorStatus.EXHIBITION_NOT_FOUND);
+        }
+        return entry.toImageResponse();
+    }
+
+    // LLM 설명 생성은 비동기로 돌리고 작업 ID만 즉시 반환 (결과는 /room/{paintingId} 로 push)
+    @PostMapping("/detect-area")
+    public ResponseEntity<ApiResponse<MessageDTO.DetectAreaAcceptedDTO>> detectArea(@RequestBody DetectAreaRequestDTO request) {
+        var accepted = detectAreaService.submit(request);
+        return ResponseEntity.accepted().body(ApiResponse.of(SuccessStatus._ACCEPTED, accepted));
     }
-}
\ No newline at end of file
+}
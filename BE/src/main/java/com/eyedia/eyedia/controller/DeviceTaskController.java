@@ -3,9 +3,13 @@ package com.eyedia.eyedia.controller;
 import com.eyedia.eyedia.dto.DeviceTask;
 import com.eyedia.eyedia.service.DeviceTaskService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -31,12 +35,71 @@ public class DeviceTaskController {
         return ResponseEntity.ok(task);
     }
 
-    // 젯슨이 다음 작업 가져가기 (폴링)
+    // 젯슨 푸시 채널 (SSE). Last-Event-ID 에는 마지막으로 처리 완료(ack)한 seq 를 넣어 재연결하면 그 뒤부터 다시 받는다
+    @GetMapping(value = "/{deviceId}/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream(@PathVariable String deviceId,
+                             @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+                             @RequestParam(required = false) Long lastAckedSeq) {
+        long acked = lastAckedSeq != null ? lastAckedSeq : parseSeq(lastEventId);
+        return taskService.openStream(deviceId, acked);
+    }
+
+    // 푸시로 받은 작업 처리 완료 (seq 까지 누적 ack)
+    @PostMapping("/{deviceId}/ack")
+    public ResponseEntity<Void> ack(@PathVariable String deviceId, @RequestParam long seq) {
+        taskService.ack(deviceId, seq);
+        return ResponseEntity.noContent().build();
+    }
+
+    // 젯슨이 다음 작업 가져가기 (롱폴링). 기다리는 동안 Tomcat 스레드는 반납되고, enqueue 가 응답을 완료한다
     @GetMapping("/{deviceId}/next-task")
-    public ResponseEntity<DeviceTask> next(@PathVariable String deviceId,
-                                           @RequestParam(defaultValue="800") long waitMs) throws InterruptedException {
-        var t = taskService.pollNext(deviceId, Math.min(waitMs, 5000));
-        return (t != null) ? ResponseEntity.ok(t) : ResponseEntity.noContent().build(); // 204
+    public DeferredResult<ResponseEntity<DeviceTask>> next(@PathVariable String deviceId,
+                                                           @RequestParam(defaultValue="800") long waitMs) {
+        long wait = Math.max(0, Math.min(waitMs, 5000));
+        // 만료는 서비스 스케줄러가 정확한 시각에 처리하고, 서블릿 async 타임아웃은 여유를 둔 안전장치
+        DeferredResult<ResponseEntity<DeviceTask>> result =
+                new DeferredResult<>(wait + 5000, ResponseEntity.noContent().build());
+        var waiter = taskService.awaitNext(deviceId, wait,
+                task -> result.setResult(ResponseEntity.ok(task)),
+                () -> result.setResult(ResponseEntity.noContent().build())); // 204
+        result.onTimeout(() -> taskService.cancel(waiter));
+        result.onError(e -> taskService.cancel(waiter));
+        return result;
+    }
+
+    // 젯슨이 쌓인 작업을 최대 max 개 한 번에 가져가기 (없으면 waitMs 동안 첫 작업을 기다림).
+    // 받은 작업은 leaseMs 동안 임대 상태이고, /tasks/ack 로 처리 완료를 알리지 않으면 다시 내려간다 (attempt 증가)
+    @GetMapping("/{deviceId}/tasks")
+    public DeferredResult<ResponseEntity<List<DeviceTask>>> fetch(@PathVariable String deviceId,
+                                                                  @RequestParam(defaultValue="10") int max,
+                                                                  @RequestParam(defaultValue="800") long waitMs,
+                                                                  @RequestParam(defaultValue="30000") long leaseMs) {
+        int batch = Math.max(1, Math.min(max, 100));
+        long wait = Math.max(0, Math.min(waitMs, 5000));
+        long lease = Math.max(1000, Math.min(leaseMs, 600000));
+        DeferredResult<ResponseEntity<List<DeviceTask>>> result =
+                new DeferredResult<>(wait + 5000, ResponseEntity.noContent().build());
+        var waiter = taskService.awaitTasks(deviceId, batch, wait, lease,
+                tasks -> result.setResult(ResponseEntity.ok(tasks)),
+                () -> result.setResult(ResponseEntity.noContent().build())); // 204
+        result.onTimeout(() -> taskService.cancel(waiter));
+        result.onError(e -> taskService.cancel(waiter));
+        return result;
+    }
+
+    // /tasks 로 받은 작업 처리 완료 (seq 목록)
+    @PostMapping("/{deviceId}/tasks/ack")
+    public ResponseEntity<Void> ackTasks(@PathVariable String deviceId, @RequestBody List<Long> seqs) {
+        taskService.ackTasks(deviceId, seqs);
+        return ResponseEntity.noContent().build();
     }
 
+    private static long parseSeq(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) return 0;
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
 }
@@ -7,11 +7,18 @@ import com.eyedia.eyedia.global.error.exception.GeneralException;
 import com.eyedia.eyedia.global.error.status.ErrorStatus;
 import com.eyedia.eyedia.repository.MessageRepository;
 import com.eyedia.eyedia.repository.PaintingRepository;
+import com.eyedia.eyedia.service.AnswerAudioService;
+import com.eyedia.eyedia.service.ConversationMemoryService;
 import com.eyedia.eyedia.service.DocentChatService;
-import com.eyedia.eyedia.service.TtsService;
+import com.eyedia.eyedia.service.DocentFallbackService;
+import com.eyedia.eyedia.service.DocentPregenerationService;
+import com.eyedia.eyedia.service.DocentStreamService;
+import com.eyedia.eyedia.service.llm.LlmPriority;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.security.Principal;
 
@@ -21,9 +28,13 @@ import java.security.Principal;
 public class DocentController {
 
     private final DocentChatService docentChatService;
+    private final DocentStreamService docentStreamService;
+    private final DocentPregenerationService docentPregenerationService;
+    private final ConversationMemoryService conversationMemoryService;
+    private final DocentFallbackService docentFallbackService;
     private final SimpMessagingTemplate messagingTemplate;
 
-    private final TtsService ttsService;
+    private final AnswerAudioService answerAudioService;
     private final PaintingRepository paintingRepository;
     private final MessageRepository messageRepository;
 
@@ -32,6 +43,9 @@ public class DocentController {
         var p = paintingRepository.findByPaintingId(req.getPaintingId())
                 .orElseThrow(() -> new GeneralException(ErrorStatus.PAINTING_NOT_FOUND));
 
+        // 이번 질문을 저장하기 전에 이전 대화(요약 + 최근 턴)를 만든다
+        String history = conversationMemoryService.historyFor(p.getPaintingId());
+
         Message q = Message.builder()
                 .sender(SenderType.USER)
                 .painting(p)
@@ -39,7 +53,10 @@ public class DocentController {
                 .build();
         messageRepository.save(q);
 
-        var answer = docentChatService.answer(docentChatService.basePrompt(p, req.getText()));
+        // 기본 질문이면 미리 생성해 둔 설명을 그대로 사용 (LLM 호출 없음)
+        var answer = docentPregenerationService.findDefaultAnswer(p, req.getText())
+                .orElseGet(() -> docentFallbackService.answerWithFallback(
+                        docentChatService.basePrompt(p, req.getText(), history), p, LlmPriority.INTERACTIVE));
 
         Message a = Message.builder()
                 .sender(SenderType.ASSISTANT)
@@ -47,31 +64,27 @@ public class DocentController {
                 .content(answer.text())
                 .build();
         messageRepository.save(a);
+        conversationMemoryService.onMessagesSaved(p.getPaintingId());
 
-        String audioUrl = ttsService.synthesizeAndGetUrl(answer.text(), "alloy");
-
-        // 젯슨에 재생시키도록 작업 큐에 넣기 (폴링 A안)
-        /*
-        if(req.getDeviceId() != null && !req.getDeviceId().isBlank()) {
-            var task = DeviceTask.builder()
-                    .taskId(UUID.randomUUID().toString())
-                    .type("PLAY_AUDIO")
-                    .audioUrl(audioUrl)
-                    .text(answer.text())
-                    .createdAt(System.currentTimeMillis())
-                    .build();
-            deviceTaskService.enqueue(req.getDeviceId(), task);
-        }**/
-
-        // 프론트로도 브로드캐스트
+        // 텍스트는 바로 보내고, 음성은 합성이 끝나면 후속 프레임 + 젯슨 PLAY_AUDIO 작업으로 전달
         var dto = MessageDTO.ChatAnswerDTO.builder()
                 .paintingId(req.getPaintingId())
                 .answer(answer.text())
                 .model(answer.model())
-                .audioUrl(audioUrl)
+                .audioPending(true)
                 .build();
 
         messagingTemplate.convertAndSendToUser(principal.getName(),"/room/" + req.getPaintingId(), dto);
+        answerAudioService.deliverLater(req.getPaintingId(), answer.text(), principal.getName(), req.getDeviceId());
         return dto;
     }
+
+    // 스트리밍 모드: 토큰이 생성되는 대로 SSE + STOMP(/room/{paintingId}) 로 전송
+    @PostMapping(value = "/ask/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter askStream(@RequestBody MessageDTO.AskRequest req, Principal principal) {
+        var p = paintingRepository.findByPaintingId(req.getPaintingId())
+                .orElseThrow(() -> new GeneralException(ErrorStatus.PAINTING_NOT_FOUND));
+
+        return docentStreamService.stream(p, req, principal == null ? null : principal.getName());
+    }
 }
@@ -47,6 +47,13 @@ public class PaintingController {
 //        return ResponseEntity.ok(paintingService.getChatMessagesByPaintingId(chatRoomId));
 //    }
 
+    @Operation(summary = "기본 도슨트 설명 재생성", description = "작품 설명이 바뀌었을 때 미리 생성해 둔 기본 도슨트 설명을 백그라운드로 다시 생성합니다.")
+    @PostMapping("/{paintingId}/docent-description/regenerate")
+    public ResponseEntity<ApiResponse<?>> regenerateDocentDescription(@PathVariable Long paintingId) {
+        paintingService.regenerateDocentDescription(paintingId);
+        return ResponseEntity.accepted().body(ApiResponse.of(SuccessStatus._ACCEPTED, null));
+    }
+
     @Operation(summary = "작품 삭제", description = "해당 그림의 objectId를 입력하면 삭제됩니다.")
     @DeleteMapping("/{paintingId}")
     public ApiResponse<?> deletePainting(@PathVariable Long paintingId) {
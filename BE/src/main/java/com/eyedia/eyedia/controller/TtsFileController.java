@@ -0,0 +1,201 @@
+package com.eyedia.eyedia.controller;
+
+import com.eyedia.eyedia.service.storage.MediaStorage;
+import com.eyedia.eyedia.service.tts.TtsCacheIndex;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * TTS mp3 서빙 (/tts/ab/cd/{sha256}.mp3, 샤딩 전에 내려준 /tts/{sha256}.mp3 도 그대로 받는다).
+ * 파일 이름이 내용 해시라서 내용이 절대 바뀌지 않으므로 ETag = 해시, Cache-Control: immutable.
+ * 젯슨 플레이어가 구간 탐색을 하므로 Range(단일 구간)를 지원하고,
+ * 본문은 Tomcat sendfile 로 커널에서 바로 보내며, 지원되지 않을 때(TLS 등)만 FileChannel.transferTo 로 복사한다.
+ * sample-fallback.mp3 같은 고정 파일은 이 패턴에 안 걸려서 기존 정적 리소스 핸들러가 그대로 처리한다.
+ * 저장소가 S3 면 로컬 파일이 없으므로 S3 URL 로 리다이렉트한다.
+ * 시작 직후 캐시 인덱스가 아직 채워지지 않았으면 저장소에 직접 있는지 확인한다.
+ * 캐시 인덱스가 언제든 파일을 지울 수 있으므로(LRU) 응답을 정하기 전에 파일을 먼저 열고, 크기도 열린 채널에서 읽는다.
+ */
+@RestController
+public class TtsFileController {
+
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final TtsCacheIndex cacheIndex;
+    private final MediaStorage storage;
+    private final Counter sendfile;
+    private final Counter copied;
+    private final Counter notModified;
+    private final Counter redirected;
+
+    public TtsFileController(TtsCacheIndex cacheIndex, MediaStorage storage, MeterRegistry meterRegistry) {
+        this.cacheIndex = cacheIndex;
+        this.storage = storage;
+        this.sendfile = meterRegistry.counter("eyedia.tts.serve", "mode", "sendfile");
+        this.copied = meterRegistry.counter("eyedia.tts.serve", "mode", "transfer");
+        this.notModified = meterRegistry.counter("eyedia.tts.serve", "mode", "not_modified");
+        this.redirected = meterRegistry.counter("eyedia.tts.serve", "mode", "redirect");
+    }
+
+    @RequestMapping(value = "/tts/{a:[0-9a-f]{2}}/{b:[0-9a-f]{2}}/{hash:[0-9a-f]{64}}.mp3",
+            method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serveSharded(@PathVariable String a, @PathVariable String b, @PathVariable String hash,
+                             HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!hash.startsWith(a + b)) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        serve(hash, request, response);
+    }
+
+    @RequestMapping(value = "/tts/{hash:[0-9a-f]{64}}.mp3", method = {RequestMethod.GET, RequestMethod.HEAD})
+    public void serve(@PathVariable String hash, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        String key = cacheIndex.lookup(hash).orElse(null);
+        if (key == null && !cacheIndex.isLoaded() && storage.exists(cacheIndex.keyOf(hash))) {
+            // 시작 직후 인덱스를 채우는 중이면 저장소에 직접 확인
+            key = cacheIndex.keyOf(hash);
+        }
+        Path file = key == null ? null : storage.localPath(key).orElse(null);
+        if (key != null && file == null) {
+            redirected.increment();
+            response.sendRedirect(storage.urlOf(key));
+            return;
+        }
+        FileChannel channel;
+        try {
+            if (file == null) throw new NoSuchFileException(hash);
+            // 먼저 열어 둔다: 이후에 인덱스가 이 파일을 지워도 열린 채널로는 끝까지 읽을 수 있다
+            channel = FileChannel.open(file, StandardOpenOption.READ);
+        } catch (NoSuchFileException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        try (FileChannel in = channel) {
+            write(hash, file, in, request, response);
+        }
+    }
+
+    private void write(String hash, Path file, FileChannel in, HttpServletRequest request,
+                       HttpServletResponse response) throws IOException {
+        long length = in.size();
+
+        String etag = "\"" + hash + "\"";
+        response.setHeader(HttpHeaders.ETAG, etag);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+
+        if (matches(request.getHeader(HttpHeaders.IF_NONE_MATCH), etag)) {
+            notModified.increment();
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = length - 1;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (range != null && (ifRange == null || ifRange.equals(etag))) {
+            long[] r = parseRange(range, length);
+            if (r == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+                response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (r.length == 2) {
+                start = r[0];
+                end = r[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length);
+            }
+        }
+
+        long count = end - start + 1;
+        response.setContentType("audio/mpeg");
+        response.setContentLengthLong(count);
+        if ("HEAD".equals(request.getMethod()) || count == 0) return;
+
+        // sendfile 은 Tomcat 이 요청 처리 뒤 경로로 다시 연다. 이미 지워졌으면 열어 둔 채널에서 복사한다.
+        // 이 확인과 Tomcat 이 여는 사이에 지워지면 연결이 끊겨 플레이어가 다시 요청하게 되지만,
+        // 방금 lookup 으로 가장 최근 사용이 된 파일이라 그 짧은 사이에 예산 전체가 밀려나야만 일어난다
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT)) && Files.isReadable(file)) {
+            // 응답 본문은 Tomcat 이 요청 처리 후 sendfile 로 보낸다 (여기서 쓰면 안 됨)
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end + 1);
+            sendfile.increment();
+            return;
+        }
+
+        copied.increment();
+        WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+        long position = start;
+        long remaining = count;
+        while (remaining > 0) {
+            long sent = in.transferTo(position, remaining, out);
+            if (sent <= 0) break;
+            position += sent;
+            remaining -= sent;
+        }
+    }
+
+    /**
+     * 단일 구간만 처리: bytes=a-b, bytes=a-, bytes=-n.
+     * 여러 구간 요청은 무시하고 전체를 준다 (빈 배열), 만족할 수 없는 구간이면 null.
+     */
+    private static long[] parseRange(String header, long length) {
+        if (!header.startsWith("bytes=")) return new long[0];
+        String spec = header.substring("bytes=".length()).trim();
+        if (spec.contains(",")) return new long[0];
+
+        int dash = spec.indexOf('-');
+        if (dash < 0) return new long[0];
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            long start, end;
+            if (first.isEmpty()) {
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0) return null;
+                start = Math.max(0, length - suffix);
+                end = length - 1;
+            } else {
+                start = Long.parseLong(first);
+                end = last.isEmpty() ? length - 1 : Math.min(Long.parseLong(last), length - 1);
+            }
+            if (start >= length || start > end) return null;
+            return new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        return Arrays.stream(ifNoneMatch.split(","))
+                .map(String::trim)
+                .map(t -> t.startsWith("W/") ? t.substring(2) : t)
+                .anyMatch(t -> t.equals("*") || t.equals(etag));
+    }
+}
@@ -0,0 +1,41 @@
+package com.eyedia.eyedia.domain;
+
+import com.eyedia.eyedia.domain.common.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * 작품 등록 시 미리 생성해 둔 기본 도슨트 설명 (artId 당 1건).
+ * sourceHash 는 생성 당시 제목/작가/설명의 해시로, 작품 정보가 바뀌면 더 이상 사용하지 않는다.
+ */
+@Entity
+@Builder
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Table(name = "pregenerated_descriptions",
+        uniqueConstraints = @UniqueConstraint(columnNames = "art_id"))
+public class PregeneratedDescription extends BaseEntity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "pregenerated_descriptions_id")
+    private Long pregeneratedDescriptionId;
+
+    @Column(name = "art_id", nullable = false)
+    private Long artId;
+
+    @Column(name = "content", columnDefinition = "TEXT")
+    private String content;
+
+    private String model;
+
+    @Column(name = "source_hash", length = 64)
+    private String sourceHash;
+
+    public void update(String content, String model, String sourceHash) {
+        this.content = content;
+        this.model = model;
+        this.sourceHash = sourceHash;
+    }
+}
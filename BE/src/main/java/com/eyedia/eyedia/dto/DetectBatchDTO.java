@@ -0,0 +1,55 @@
+package com.eyedia.eyedia.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.*;
+
+import java.util.List;
+
+public class DetectBatchDTO {
+
+    @Getter @Setter @Builder
+    @NoArgsConstructor @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class BatchRequest {
+        @Valid
+        @NotNull
+        @Size(min = 1, max = 500)
+        private List<Item> items;
+    }
+
+    @Getter @Setter @Builder
+    @NoArgsConstructor @AllArgsConstructor
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Item {
+        @NotNull
+        private Long artId;
+        private String deviceId;  // 젯슨 식별자
+        private Long detectedAt;  // epoch ms (젯슨 기준 감지 시각)
+    }
+
+    @Getter @Builder
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class BatchResponse {
+        private int total;
+        private int succeeded;
+        private int failed;
+        private List<ItemResult> results; // 요청 순서 그대로
+    }
+
+    @Getter @Builder
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ItemResult {
+        private Long artId;
+        private String deviceId;
+        private Long detectedAt;
+        private boolean success;
+        private String code;      // 성공: COMMON200, 실패: PAINTING404 / PAINTING409 ...
+        private String message;
+        private Object data;      // 성공: ChatImageResponseDTO, 충돌: duplicatedPaintingIds
+    }
+}
@@ -4,7 +4,7 @@ import jakarta.persistence.Id;
 import lombok.*;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class DeviceTask {
@@ -13,5 +13,9 @@ public class DeviceTask {
     private String type;       // "PLAY_AUDIO"
     private String audioUrl;   // mp3 URL
     private String text;       // (선택) 자막/디버깅
+    private String groupId;    // (선택) 같은 답변의 문장들을 묶는 키. 새 답변이 오면 이전 답변의 안 나간 음성을 버린다
     private long createdAt;    // epoch ms
+    private long expiresAt;    // epoch ms, 이 시각이 지나면 전달하지 않음 (0 이면 createdAt + 기본 TTL)
+    private long seq;          // 작업 로그 id (젯슨별로 증가, ack 용)
+    private int attempt;       // 몇 번째 전달인지 (ack 없이 임대가 끝나 다시 보내면 2 이상)
 }
@@ -1,9 +1,12 @@
 package com.eyedia.eyedia.dto;
 
 import com.eyedia.eyedia.domain.enums.ChatType;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.*;
 
+import java.util.List;
+
 public class MessageDTO {
     @Builder
     @Getter
@@ -36,6 +39,7 @@ public class MessageDTO {
         private Long paintingId;   // 채팅 방 자동 분리에 사용할 키
         private String text;  // 사용자가 보낸 메시지
         private String deviceId; // 젯슨 식별자 (프론트가 같이 보냄)
+        private boolean pipelineAudio; // /ask/stream: 문장 단위로 음성을 미리 만들어 순서대로 push
     }
 
     @Getter @Setter @Builder
@@ -46,6 +50,35 @@ public class MessageDTO {
         private String answer; // LLM 도슨트 톤 답변
         private String model;  // (옵션) 모델명
         private String imgUrl;
-        private String audioUrl; // 선택: 프론트도 재생 가능
+        private String audioUrl; // 선택: 프론트도 재생 가능 (/ask 는 합성 후 audioUrl 만 담은 후속 프레임으로 push)
+        private Boolean audioPending; // /ask 응답: 음성은 합성 중, 후속 프레임으로 전달됨 (후속 프레임이 false + audioUrl 없음이면 음성 생략)
+        private String jobId;    // detect-area 비동기 작업 ID (해당 시에만)
+        private String error;    // detect-area 실패 프레임: 오류 코드 (answer 없음, jobId 로 어떤 요청인지 구분)
+    }
+
+    // 스트리밍 답변 프레임 (STOMP /room/{paintingId}, SSE 공통)
+    @Getter @Builder
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ChatStreamFrameDTO {
+        private Long paintingId;
+        private long seq;         // 0부터 증가, 순서 보장용
+        private String delta;     // 이번 조각 텍스트
+        private boolean done;     // 텍스트 마지막 프레임 여부 (음성은 audioDone)
+        private Long messageId;   // done 프레임: 저장된 ASSISTANT Message id
+        private String answer;    // done 프레임: 전체 답변
+        private String model;
+        private Integer audioIndex;          // audio 프레임: 문장 순번 (0부터, 순서대로 전송)
+        private String audioUrl;             // audio 프레임: 해당 문장 mp3
+        private Boolean audioDone;           // 음성까지 모두 끝났을 때 true
+        private List<String> audioPlaylist;  // audioDone 프레임: 문장 순서대로 된 전체 재생 목록
+    }
+
+    @Getter @Builder
+    @AllArgsConstructor(access = AccessLevel.PROTECTED)
+    public static class DetectAreaAcceptedDTO {
+        private String jobId;
+        private Long artId;
+        private List<Long> paintingIds; // 답변이 push될 /room/{paintingId} 목록
     }
 }
@@ -18,6 +18,24 @@ public enum ErrorStatus implements BaseErrorCode {
     INVALID_PAINTING_ID(HttpStatus.BAD_REQUEST, "PAINTING400", "잘못된 그림 ID입니다."),
     PAINTING_CONFLICT(HttpStatus.CONFLICT, "PAINTING409", "그림의 결과값이 여러개 입니다."),
 
+    // 감지 이벤트 관련
+    DETECT_AREA_QUEUE_FULL(HttpStatus.SERVICE_UNAVAILABLE, "EVENT503", "설명 생성 대기열이 가득 찼습니다. 잠시 후 다시 시도해주세요."),
+
+    // 채팅 관련
+    CHAT_STREAM_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "CHAT503", "답변 스트리밍 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+
+    // LLM 호출 관련
+    LLM_BUSY(HttpStatus.TOO_MANY_REQUESTS, "LLM429", "AI 도슨트 요청이 많습니다. 잠시 후 다시 시도해주세요."),
+    LLM_QUEUE_TIMEOUT(HttpStatus.SERVICE_UNAVAILABLE, "LLM503", "AI 도슨트 응답 대기 시간이 초과되었습니다."),
+    LLM_CIRCUIT_OPEN(HttpStatus.SERVICE_UNAVAILABLE, "LLM502", "AI 도슨트 연결이 불안정합니다. 잠시 후 다시 시도해주세요."),
+    LLM_TIMEOUT(HttpStatus.GATEWAY_TIMEOUT, "LLM504", "AI 도슨트 응답 시간이 초과되었습니다."),
+
+    // 젯슨 작업 큐 관련
+    DEVICE_QUEUE_LIMIT(HttpStatus.SERVICE_UNAVAILABLE, "DEVICE503", "연결된 기기가 너무 많습니다. 잠시 후 다시 시도해주세요."),
+
+    // TTS 관련
+    TTS_BUSY(HttpStatus.SERVICE_UNAVAILABLE, "TTS503", "음성 생성 작업이 많습니다. 잠시 후 다시 시도해주세요."),
+
     // 설명(description) 관련
     ARTIST_NOT_FOUND(HttpStatus.NOT_FOUND, "ARTIST404", "작가 정보를 찾을 수 없습니다."),
     BACKGROUND_NOT_FOUND(HttpStatus.NOT_FOUND, "BACKGROUND404", "배경 정보를 찾을 수 없습니다."),
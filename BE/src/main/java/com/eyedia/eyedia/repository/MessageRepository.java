@@ -2,6 +2,8 @@ package com.eyedia.eyedia.repository;
 
 import com.eyedia.eyedia.domain.Message;
 import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.domain.enums.SenderType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,4 +23,11 @@ public interface MessageRepository extends JpaRepository<Message, Long> {
     Optional<Message> findTopByPaintingOrderByCreatedAtDesc(Painting painting);
     List<Message> findByPainting_PaintingIdOrderByCreatedAtAsc(Long paintingId);
 
+    // 대화 메모리: 최근 N개(역순) / 요약 이후 ~ 최근 구간 전 메시지(역순)
+    List<Message> findByPainting_PaintingIdOrderByMessageIdDesc(Long paintingId, Pageable pageable);
+    List<Message> findByPainting_PaintingIdAndMessageIdGreaterThanAndMessageIdLessThanOrderByMessageIdDesc(
+            Long paintingId, Long afterMessageId, Long beforeMessageId, Pageable pageable);
+
+    Optional<Message> findTopByPainting_PaintingIdAndSenderOrderByMessageIdDesc(Long paintingId, SenderType sender);
+
 }
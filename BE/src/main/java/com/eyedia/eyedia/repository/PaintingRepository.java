@@ -1,6 +1,7 @@
 package com.eyedia.eyedia.repository;
 
 import com.eyedia.eyedia.domain.Painting;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,4 +17,16 @@ public interface PaintingRepository extends JpaRepository<Painting, Long> {
     List<Painting> findNullUserByArtId(@Param("artId") Long artId);
     Optional<Painting> findByPaintingId(Long paintingId);
     List<Painting> findByArtId(Long artId);
+
+    // artId 카탈로그 적재용 (전시까지 한 번에 fetch)
+    @Query("select p from Painting p left join fetch p.exhibition where p.user is null and p.artId is not null")
+    List<Painting> findAllNullUserWithExhibition();
+
+    @Query("select p from Painting p left join fetch p.exhibition where p.artId = :artId and p.user is null")
+    List<Painting> findNullUserByArtIdWithExhibition(@Param("artId") Long artId);
+
+    // 오디오 가이드 사전 합성용: 템플릿 작품 전체(artId 없는 것 포함)를 paintingId 순으로 afterPaintingId 다음부터 한 묶음씩
+    List<Painting> findByUserIsNullAndPaintingIdGreaterThanOrderByPaintingIdAsc(Long afterPaintingId, Pageable pageable);
+    long countByUserIsNull();
+    long countByUserIsNullAndPaintingIdLessThanEqual(Long paintingId);
 }
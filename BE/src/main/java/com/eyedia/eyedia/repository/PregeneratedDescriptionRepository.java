@@ -0,0 +1,12 @@
+package com.eyedia.eyedia.repository;
+
+import com.eyedia.eyedia.domain.PregeneratedDescription;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PregeneratedDescriptionRepository extends JpaRepository<PregeneratedDescription, Long> {
+    Optional<PregeneratedDescription> findByArtId(Long artId);
+}
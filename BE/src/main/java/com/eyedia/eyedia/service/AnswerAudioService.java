@@ -0,0 +1,89 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.dto.MessageDTO;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.UUID;
+
+/**
+ * /chats/ask 답변 음성을 응답과 분리해서 만든다.
+ * 텍스트 답변은 먼저 돌려주고, 합성이 끝나면 audioUrl 만 담은 후속 프레임을
+ * /user/.../room/{paintingId} 로 보내고 젯슨 작업 큐에 PLAY_AUDIO 를 넣는다.
+ * 실행기가 꽉 찼거나 합성에 실패하면 음성은 버리고 audioPending=false 프레임만 보내서 클라이언트가 기다리지 않게 한다.
+ */
+@Slf4j
+@Service
+public class AnswerAudioService {
+
+    private final TtsService ttsService;
+    private final DeviceTaskService deviceTaskService;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Counter shed;
+    private final Counter failed;
+    private final Timer latency;
+
+    public AnswerAudioService(TtsService ttsService,
+                              DeviceTaskService deviceTaskService,
+                              SimpMessagingTemplate messagingTemplate,
+                              @Qualifier("ttsExecutor") ThreadPoolTaskExecutor executor,
+                              MeterRegistry meterRegistry) {
+        this.ttsService = ttsService;
+        this.deviceTaskService = deviceTaskService;
+        this.messagingTemplate = messagingTemplate;
+        this.executor = executor;
+
+        this.shed = meterRegistry.counter("eyedia.tts.async.skipped", "reason", "busy");
+        this.failed = meterRegistry.counter("eyedia.tts.async.skipped", "reason", "failed");
+        this.latency = meterRegistry.timer("eyedia.tts.async.duration");
+    }
+
+    public void deliverLater(Long paintingId, String text, String userName, String deviceId) {
+        try {
+            executor.execute(() -> deliver(paintingId, text, userName, deviceId));
+        } catch (TaskRejectedException e) {
+            // 실행기가 꽉 차면 요청 스레드에서 합성하지 않고 이번 답변 음성은 건너뛴다
+            shed.increment();
+            sendNoAudio(paintingId, userName);
+        }
+    }
+
+    private void deliver(Long paintingId, String text, String userName, String deviceId) {
+        Timer.Sample sample = Timer.start();
+        try {
+            String audioUrl = ttsService.synthesizeAndGetUrl(text, null);
+
+            var dto = MessageDTO.ChatAnswerDTO.builder()
+                    .paintingId(paintingId)
+                    .audioUrl(audioUrl)
+                    .build();
+            messagingTemplate.convertAndSendToUser(userName, "/room/" + paintingId, dto);
+
+            deviceTaskService.enqueuePlayAudio(deviceId, UUID.randomUUID().toString(), audioUrl, text);
+        } catch (Exception e) {
+            log.error("Answer audio delivery failed: paintingId={}", paintingId, e);
+            failed.increment();
+            sendNoAudio(paintingId, userName);
+        } finally {
+            sample.stop(latency);
+        }
+    }
+
+    // 음성 없이 끝났음을 알리는 후속 프레임 (audioUrl 없음)
+    private void sendNoAudio(Long paintingId, String userName) {
+        var dto = MessageDTO.ChatAnswerDTO.builder()
+                .paintingId(paintingId)
+                .audioPending(false)
+                .build();
+        messagingTemplate.convertAndSendToUser(userName, "/room/" + paintingId, dto);
+    }
+}
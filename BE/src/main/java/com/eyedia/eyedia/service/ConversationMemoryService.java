@@ -0,0 +1,195 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Message;
+import com.eyedia.eyedia.domain.enums.SenderType;
+import com.eyedia.eyedia.repository.MessageRepository;
+import com.eyedia.eyedia.service.llm.LlmPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 작품 방(paintingId)별 대화 메모리.
+ * 프롬프트에는 (롤링 요약 + 최근 메시지 N개) 만 넣고 토큰 예산을 넘지 않게 자른다.
+ * 최근 구간 밖으로 밀려난 메시지는 백그라운드에서 요약에 조금씩 합쳐 넣는다.
+ * 요약은 항상 최근 구간 바로 앞부분부터 채우므로, 재시작/LRU 로 요약이 사라져도 다음 갱신 한 번이면
+ * 최근 구간과 이어지는 요약이 생긴다 (그보다 오래된 대화는 요약에서 빠진다).
+ */
+@Slf4j
+@Service
+public class ConversationMemoryService {
+
+    private final MessageRepository messageRepository;
+    private final DocentChatService docentChatService;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final int recentMessages;
+    private final int tokenBudget;
+    private final int summarizeEvery;
+    private final int summaryMaxChars;
+    private final int maxRooms;
+
+    // 요약은 방 수 기준 LRU 로만 들고 있다 (재시작 시 다시 쌓임)
+    private final LinkedHashMap<Long, Summary> summaries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Set<Long> summarizing = ConcurrentHashMap.newKeySet();
+
+    private final Counter summaryUpdated;
+    private final Counter summaryFailed;
+    private final Counter summarySkipped;
+
+    public ConversationMemoryService(MessageRepository messageRepository,
+                                     DocentChatService docentChatService,
+                                     @Qualifier("docentMemoryExecutor") ThreadPoolTaskExecutor executor,
+                                     @Value("${eyedia.docent.memory.recentMessages:6}") int recentMessages,
+                                     @Value("${eyedia.docent.memory.tokenBudget:1200}") int tokenBudget,
+                                     @Value("${eyedia.docent.memory.summarizeEvery:4}") int summarizeEvery,
+                                     @Value("${eyedia.docent.memory.summaryMaxChars:600}") int summaryMaxChars,
+                                     @Value("${eyedia.docent.memory.maxRooms:1000}") int maxRooms,
+                                     MeterRegistry meterRegistry) {
+        this.messageRepository = messageRepository;
+        this.docentChatService = docentChatService;
+        this.executor = executor;
+        this.recentMessages = recentMessages;
+        this.tokenBudget = tokenBudget;
+        this.summarizeEvery = summarizeEvery;
+        this.summaryMaxChars = summaryMaxChars;
+        this.maxRooms = maxRooms;
+
+        this.summaryUpdated = meterRegistry.counter("eyedia.docent.memory.summaries", "result", "updated");
+        this.summaryFailed = meterRegistry.counter("eyedia.docent.memory.summaries", "result", "failed");
+        this.summarySkipped = meterRegistry.counter("eyedia.docent.memory.summaries", "result", "skipped");
+        Gauge.builder("eyedia.docent.memory.rooms", this, ConversationMemoryService::roomCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 프롬프트용 이전 대화 블록. 현재 질문을 저장하기 전에 호출해야 질문이 중복으로 들어가지 않는다.
+     * 최근 메시지는 최신 것부터 예산 안에서 채우고, 남는 예산만큼 요약을 앞에 붙인다.
+     */
+    public String historyFor(Long paintingId) {
+        List<Message> recent = messageRepository.findByPainting_PaintingIdOrderByMessageIdDesc(
+                paintingId, PageRequest.of(0, recentMessages));
+
+        Deque<String> lines = new ArrayDeque<>();
+        int used = 0;
+        for (Message m : recent) {
+            String line = render(m);
+            int cost = estimateTokens(line);
+            if (used + cost > tokenBudget) break;
+            lines.addFirst(line);
+            used += cost;
+        }
+
+        Summary summary = summaryOf(paintingId);
+        String summaryText = summary == null ? "" : fit(summary.text(), tokenBudget - used);
+
+        StringBuilder sb = new StringBuilder();
+        if (!summaryText.isBlank()) {
+            sb.append("(요약) ").append(summaryText).append('\n');
+        }
+        lines.forEach(line -> sb.append(line).append('\n'));
+        return sb.toString().strip();
+    }
+
+    /** 메시지 저장 직후 호출. 요약할 만큼 쌓였으면 백그라운드에서 갱신 (방마다 한 번에 하나) */
+    public void onMessagesSaved(Long paintingId) {
+        if (!summarizing.add(paintingId)) return;
+        try {
+            executor.execute(() -> {
+                try {
+                    summarize(paintingId);
+                } finally {
+                    summarizing.remove(paintingId);
+                }
+            });
+        } catch (TaskRejectedException e) {
+            summarizing.remove(paintingId);
+            summarySkipped.increment();
+        }
+    }
+
+    private void summarize(Long paintingId) {
+        try {
+            List<Message> recent = messageRepository.findByPainting_PaintingIdOrderByMessageIdDesc(
+                    paintingId, PageRequest.of(0, recentMessages));
+            if (recent.size() < recentMessages) return;
+            Long oldestRecentId = recent.get(recent.size() - 1).getMessageId();
+
+            Summary previous = summaryOf(paintingId);
+            Long coveredUpTo = previous == null ? 0L : previous.coveredUpTo();
+
+            // 요약 이후 ~ 최근 구간 직전 메시지 중 최근 구간에 가까운 쪽부터 (최근 구간은 원문 그대로 쓰이므로 제외)
+            List<Message> pending = new ArrayList<>(messageRepository
+                    .findByPainting_PaintingIdAndMessageIdGreaterThanAndMessageIdLessThanOrderByMessageIdDesc(
+                            paintingId, coveredUpTo, oldestRecentId, PageRequest.of(0, summarizeEvery * 4)));
+            if (pending.size() < summarizeEvery) return;
+            Collections.reverse(pending);
+
+            String turns = pending.stream().map(this::render).collect(Collectors.joining("\n"));
+            var answer = docentChatService.answer(
+                    docentChatService.summaryPrompt(previous == null ? null : previous.text(), turns, summaryMaxChars)
+                            .forPainting(paintingId),
+                    LlmPriority.BACKGROUND);
+
+            putSummary(paintingId, new Summary(
+                    fit(answer.text(), summaryMaxChars / 2),
+                    pending.get(pending.size() - 1).getMessageId()));
+            summaryUpdated.increment();
+        } catch (Exception e) {
+            summaryFailed.increment();
+            log.warn("Conversation summary update failed: paintingId={}", paintingId, e);
+        }
+    }
+
+    private String render(Message m) {
+        String speaker = m.getSender() == SenderType.USER ? "관람객" : "도슨트";
+        String content = m.getContent() == null ? "" : m.getContent().strip();
+        // detect-area 는 질문 자리에 크롭 이미지 URL 을 저장한다
+        if (m.getSender() == SenderType.USER && content.startsWith("http")) {
+            content = "(작품의 한 부분을 바라봄)";
+        }
+        return speaker + ": " + content;
+    }
+
+    // 한국어 기준 대략 2글자 = 1토큰으로 추정
+    private static int estimateTokens(String s) {
+        return (s.length() + 1) / 2;
+    }
+
+    private static String fit(String s, int maxTokens) {
+        if (s == null || maxTokens <= 0) return "";
+        int maxChars = maxTokens * 2;
+        return s.length() <= maxChars ? s : s.substring(0, maxChars);
+    }
+
+    private synchronized Summary summaryOf(Long paintingId) {
+        return summaries.get(paintingId);
+    }
+
+    private synchronized void putSummary(Long paintingId, Summary summary) {
+        summaries.put(paintingId, summary);
+        Iterator<Long> eldest = summaries.keySet().iterator();
+        while (summaries.size() > maxRooms && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+        }
+    }
+
+    private synchronized int roomCount() {
+        return summaries.size();
+    }
+
+    /** coveredUpTo: 요약에 반영된 마지막 messageId */
+    private record Summary(String text, Long coveredUpTo) {}
+}
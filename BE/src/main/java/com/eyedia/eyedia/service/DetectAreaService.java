@@ -0,0 +1,190 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Message;
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.domain.enums.SenderType;
+import com.eyedia.eyedia.dto.DetectAreaRequestDTO;
+import com.eyedia.eyedia.dto.MessageDTO;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.repository.MessageRepository;
+import com.eyedia.eyedia.repository.PaintingRepository;
+import com.eyedia.eyedia.service.llm.LlmPriority;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * detect-area 요청을 접수만 하고 바로 반환한 뒤,
+ * LLM 설명은 detectAreaExecutor 에서 생성해 /room/{paintingId} 로 push 한다.
+ */
+@Slf4j
+@Service
+public class DetectAreaService {
+
+    private final PaintingRepository paintingRepository;
+    private final MessageRepository messageRepository;
+    private final DocentChatService docentChatService;
+    private final GazeAnswerCache gazeAnswerCache;
+    private final ConversationMemoryService conversationMemoryService;
+    private final SimpMessageSendingOperations messagingTemplate;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Counter submitted;
+    private final Counter rejected;
+    private final Counter completed;
+    private final Counter failed;
+    private final Timer duration;
+
+    public DetectAreaService(PaintingRepository paintingRepository,
+                             MessageRepository messageRepository,
+                             DocentChatService docentChatService,
+                             GazeAnswerCache gazeAnswerCache,
+                             ConversationMemoryService conversationMemoryService,
+                             SimpMessageSendingOperations messagingTemplate,
+                             @Qualifier("detectAreaExecutor") ThreadPoolTaskExecutor executor,
+                             MeterRegistry meterRegistry) {
+        this.paintingRepository = paintingRepository;
+        this.messageRepository = messageRepository;
+        this.docentChatService = docentChatService;
+        this.gazeAnswerCache = gazeAnswerCache;
+        this.conversationMemoryService = conversationMemoryService;
+        this.messagingTemplate = messagingTemplate;
+        this.executor = executor;
+
+        Gauge.builder("eyedia.detect.area.queue.depth", executor, e -> e.getThreadPoolExecutor().getQueue().size())
+                .description("대기 중인 detect-area 작업 수")
+                .register(meterRegistry);
+        Gauge.builder("eyedia.detect.area.active", executor, ThreadPoolTaskExecutor::getActiveCount)
+                .description("실행 중인 detect-area 작업 수")
+                .register(meterRegistry);
+        this.submitted = meterRegistry.counter("eyedia.detect.area.jobs", "result", "submitted");
+        this.rejected = meterRegistry.counter("eyedia.detect.area.jobs", "result", "rejected");
+        this.completed = meterRegistry.counter("eyedia.detect.area.jobs", "result", "completed");
+        this.failed = meterRegistry.counter("eyedia.detect.area.jobs", "result", "failed");
+        this.duration = meterRegistry.timer("eyedia.detect.area.duration");
+    }
+
+    public MessageDTO.DetectAreaAcceptedDTO submit(DetectAreaRequestDTO request) {
+        // 그림 조회는 요청 스레드에서 (없으면 즉시 404)
+        List<Painting> paintings = paintingRepository.findByArtId(request.getArtId());
+        if (paintings == null || paintings.isEmpty()) {
+            throw new GeneralException(ErrorStatus.PAINTING_NOT_FOUND);
+        }
+
+        String jobId = UUID.randomUUID().toString();
+        String imageUrl = PaintingCatalog.imageUrl(
+                paintings.get(0).getExhibition().getExhibitionsId(),
+                paintings.get(0).getArtId(),
+                request.getQ().get(0));
+
+        try {
+            executor.execute(() -> run(jobId, request, paintings, imageUrl));
+        } catch (TaskRejectedException e) {
+            rejected.increment();
+            throw new GeneralException(ErrorStatus.DETECT_AREA_QUEUE_FULL);
+        }
+        submitted.increment();
+
+        return MessageDTO.DetectAreaAcceptedDTO.builder()
+                .jobId(jobId)
+                .artId(request.getArtId())
+                .paintingIds(paintings.stream().map(Painting::getPaintingId).toList())
+                .build();
+    }
+
+    private void run(String jobId, DetectAreaRequestDTO request, List<Painting> paintings, String imageUrl) {
+        Timer.Sample sample = Timer.start();
+        // 아직 답변 프레임을 못 받은 방 (실패하면 여기에만 실패 프레임)
+        List<Painting> pending = new ArrayList<>(paintings);
+        try {
+            List<String> descriptions = request.getList().stream()
+                    .map(DetectAreaRequestDTO.CropItemDTO::getCropDescription)
+                    .toList();
+            String quadrant = request.getQ().get(0);
+
+            // 같은 작품·사분면·크롭 묶음이면 캐시된 답변 재사용
+            var cacheKey = GazeAnswerCache.key(request.getArtId(), quadrant, descriptions);
+            var answer = gazeAnswerCache.get(cacheKey).orElseGet(() -> {
+                String combined = descriptions.stream()
+                        .map(desc -> "- " + desc)
+                        .collect(Collectors.joining("\n"));
+
+                var generated = docentChatService.answer(
+                        docentChatService.gazeAreaPrompt(
+                                paintings.get(0).getTitle(),
+                                quadrant,
+                                combined).forPainting(paintings.get(0).getPaintingId()),
+                        LlmPriority.BACKGROUND);
+                gazeAnswerCache.put(cacheKey, generated);
+                return generated;
+            });
+
+            for (Painting painting : paintings) {
+                Message q = Message.builder()
+                        .sender(SenderType.USER)
+                        .painting(painting)
+                        .content(imageUrl)
+                        .build();
+                messageRepository.save(q);
+
+                Message a = Message.builder()
+                        .sender(SenderType.ASSISTANT)
+                        .painting(painting)
+                        .content(answer.text())
+                        .build();
+                messageRepository.save(a);
+                conversationMemoryService.onMessagesSaved(painting.getPaintingId());
+
+                var dto = MessageDTO.ChatAnswerDTO.builder()
+                        .paintingId(painting.getPaintingId())
+                        .answer(answer.text())
+                        .model(answer.model())
+                        .imgUrl(imageUrl)
+                        .jobId(jobId)
+                        .build();
+
+                messagingTemplate.convertAndSend("/room/" + painting.getPaintingId(), dto);
+                pending.remove(painting);
+            }
+            completed.increment();
+        } catch (Exception e) {
+            failed.increment();
+            log.error("detect-area job failed: jobId={}, artId={}", jobId, request.getArtId(), e);
+            sendFailure(jobId, pending, e);
+        } finally {
+            sample.stop(duration);
+        }
+    }
+
+    // 202 + jobId 를 받은 클라이언트가 끝없이 기다리지 않도록 같은 방들로 실패 프레임을 보낸다
+    private void sendFailure(String jobId, List<Painting> paintings, Exception cause) {
+        String code = cause instanceof GeneralException ge
+                ? ge.getErrorReason().getCode()
+                : ErrorStatus._INTERNAL_SERVER_ERROR.getCode();
+        for (Painting painting : paintings) {
+            try {
+                var dto = MessageDTO.ChatAnswerDTO.builder()
+                        .paintingId(painting.getPaintingId())
+                        .jobId(jobId)
+                        .error(code)
+                        .build();
+                messagingTemplate.convertAndSend("/room/" + painting.getPaintingId(), dto);
+            } catch (Exception e) {
+                log.warn("detect-area failure frame not sent: jobId={}, paintingId={}", jobId, painting.getPaintingId(), e);
+            }
+        }
+    }
+}
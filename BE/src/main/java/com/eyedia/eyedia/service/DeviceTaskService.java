@@ -1,25 +1,726 @@
 package com.eyedia.eyedia.service;
 
 import com.eyedia.eyedia.dto.DeviceTask;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.service.device.DeviceTaskLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.BlockingQueue;
+import java.util.Set;
+import java.util.UUID;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
+/**
+ * 젯슨별 작업 큐.
+ * /next-task 롱폴링은 스레드를 붙잡지 않는다: 작업이 없으면 Waiter 로 등록만 해 두고
+ * enqueue 가 대기 중인 Waiter 에 바로 넘겨준다. 대기 시간 만료는 스케줄러 스레드 1개가 처리한다.
+ * /stream(SSE) 으로 붙어 있는 젯슨에는 enqueue 즉시 seq 를 붙여 푸시하고, ack 받을 때까지 보관했다가
+ * 재연결하면 마지막 ack 이후 것부터 다시 보낸다. ack 안 된 작업이 capacity 개면 큐에 쌓아 두고, ack 가 오면 순서대로 이어서 보낸다. 소켓 쓰기는 큐 잠금 밖에서 연결별 발신자(StreamSender)가
+ * deviceStreamExecutor 에서 하므로, TCP 창이 꽉 찬 젯슨 하나가 enqueue 나 다른 젯슨을 막지 않는다.
+ * 모든 작업은 DeviceTaskLog 에 먼저 기록되고(seq = 로그 id) 전달/ack 되면 지워지므로, 재시작해도 남은 작업이 복구된다.
+ * 큐 수명: 만료(expiresAt)된 작업은 절대 전달하지 않고, coalesceTypes 타입은 새 답변(groupId)이 오면 이전 답변의 안 나간 작업을 버리며,
+ * 큐가 차면 가장 오래된 작업부터 버리며, 오래 쓰지 않은 빈 큐는 지운다.
+ * 작업이 한 번도 없었던 큐(모르는 deviceId 의 조회/연결)는 젯슨별 지표 없이 만들고, 대기/연결이 끝나는 즉시 지운다.
+ * 큐 수는 maxQueues 로 제한한다.
+ * /tasks 묶음 조회는 작업을 임대(lease)로 내주고, leaseMs 안에 ack 가 없으면 큐 앞에 되돌려 다시 전달한다.
+ */
+@Slf4j
 @Service
 public class DeviceTaskService {
-    private final Map<String, BlockingQueue<DeviceTask>> queues = new ConcurrentHashMap<>();
+
+    private final Map<String, DeviceQueue> queues = new ConcurrentHashMap<>();
+    private final DeviceTaskLog taskLog;
+    private final MeterRegistry meterRegistry;
+    // 롱폴링 만료 + 정리(sweep)
+    private final ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    // 푸시 채널 heartbeat (만료 처리와 분리)
+    private final ThreadPoolTaskScheduler heartbeatScheduler = new ThreadPoolTaskScheduler();
+    private final ThreadPoolTaskExecutor sendExecutor;
+    private final long streamTimeoutMs;
+    private final int capacity;
+    private final int maxQueues;
+    private final long idleEvictMs;
+    private final long defaultTtlMs;
+    private final Set<String> coalesceTypes;
+
+    private final AtomicInteger waiting = new AtomicInteger();
+    private final AtomicInteger maxWaiting = new AtomicInteger();
+    private final AtomicInteger streams = new AtomicInteger();
+    private final Counter pushed;
+    private final Counter replayed;
+    private final Counter evicted;
+    private final Counter rejectedQueues;
+    private final Counter redelivered;
+
+    public DeviceTaskService(DeviceTaskLog taskLog,
+                             @Qualifier("deviceStreamExecutor") ThreadPoolTaskExecutor sendExecutor,
+                             @Value("${eyedia.device.stream.timeoutMs:1800000}") long streamTimeoutMs,
+                             @Value("${eyedia.device.stream.heartbeatMs:15000}") long heartbeatMs,
+                             @Value("${eyedia.device.queue.capacity:1000}") int capacity,
+                             @Value("${eyedia.device.queue.maxQueues:10000}") int maxQueues,
+                             @Value("${eyedia.device.queue.idleEvictMs:600000}") long idleEvictMs,
+                             @Value("${eyedia.device.queue.sweepMs:5000}") long sweepMs,
+                             @Value("${eyedia.device.task.ttlMs:60000}") long defaultTtlMs,
+                             @Value("${eyedia.device.task.coalesceTypes:PLAY_AUDIO}") Set<String> coalesceTypes,
+                             MeterRegistry meterRegistry) {
+        this.taskLog = taskLog;
+        this.sendExecutor = sendExecutor;
+        this.meterRegistry = meterRegistry;
+        this.streamTimeoutMs = streamTimeoutMs;
+        this.capacity = capacity;
+        this.maxQueues = maxQueues;
+        this.idleEvictMs = idleEvictMs;
+        this.defaultTtlMs = defaultTtlMs;
+        this.coalesceTypes = coalesceTypes;
+        scheduler.setPoolSize(1);
+        scheduler.setThreadNamePrefix("device-task-");
+        scheduler.setRemoveOnCancelPolicy(true);
+        scheduler.initialize();
+        heartbeatScheduler.setPoolSize(1);
+        heartbeatScheduler.setThreadNamePrefix("device-heartbeat-");
+        heartbeatScheduler.initialize();
+        // 프록시가 유휴 연결을 끊지 않도록 주기적으로 주석 한 줄
+        heartbeatScheduler.scheduleAtFixedRate(this::heartbeat, Duration.ofMillis(heartbeatMs));
+        // 만료 작업 정리 + 안 쓰는 큐 제거
+        scheduler.scheduleAtFixedRate(this::sweep, Duration.ofMillis(sweepMs));
+
+        Gauge.builder("eyedia.device.waiters", waiting, AtomicInteger::get)
+                .register(meterRegistry);
+        // 서버 시작 이후 동시에 기다린 젯슨 수의 최댓값
+        Gauge.builder("eyedia.device.waiters.max", maxWaiting, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("eyedia.device.streams", streams, AtomicInteger::get)
+                .register(meterRegistry);
+        Gauge.builder("eyedia.device.queues", queues, Map::size)
+                .register(meterRegistry);
+        this.pushed = meterRegistry.counter("eyedia.device.push", "kind", "live");
+        this.replayed = meterRegistry.counter("eyedia.device.push", "kind", "replay");
+        this.evicted = meterRegistry.counter("eyedia.device.queue.evictions");
+        this.rejectedQueues = meterRegistry.counter("eyedia.device.queue.rejected");
+        this.redelivered = meterRegistry.counter("eyedia.device.task.redelivered");
+        Gauge.builder("eyedia.device.log.pending", taskLog, DeviceTaskLog::liveCount)
+                .register(meterRegistry);
+        Gauge.builder("eyedia.device.log.segments", taskLog, DeviceTaskLog::segmentCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 재시작 전에 남아 있던 작업을 젯슨별 큐에 되돌린다 (로그 id 순 = 넣은 순서). 만료된 것은 다음 정리 때 빠진다.
+     * 이미 받아 둔 작업이므로 maxQueues 제한은 보지 않는다 (여기서 던지면 애플리케이션이 뜨지 않는다).
+     */
+    @PostConstruct
+    void recover() throws IOException {
+        for (DeviceTaskLog.Recovered r : taskLog.recover()) {
+            DeviceQueue q = queues.computeIfAbsent(r.deviceId(), DeviceQueue::new);
+            synchronized (q) {
+                q.meters();
+                q.tasks.addLast(r.task());
+            }
+        }
+        if (queues.size() > maxQueues) {
+            log.warn("Recovered {} device queues, above maxQueues={}; new devices are rejected until idle queues are evicted",
+                    queues.size(), maxQueues);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        scheduler.shutdown();
+        heartbeatScheduler.shutdown();
+    }
 
     public void enqueue(String deviceId, DeviceTask task) {
-        queues.computeIfAbsent(deviceId, k -> new LinkedBlockingQueue<>(1000)).offer(task);
+        long now = System.currentTimeMillis();
+        if (task.getCreatedAt() == 0) task.setCreatedAt(now);
+        if (task.getExpiresAt() == 0) task.setExpiresAt(task.getCreatedAt() + defaultTtlMs);
+
+        withQueue(deviceId, q -> {
+            DeviceMeters meters = q.meters();
+            if (task.getExpiresAt() <= now) {
+                meters.expired.increment();
+                return null;
+            }
+            // 새 답변이 시작되면 이전 답변의 아직 안 나간 같은 타입 작업은 버린다 (늦게 도착한 예전 음성은 재생하지 않음).
+            // 같은 답변의 문장들(groupId 같음)과 groupId 없는 작업은 그대로 순서대로 나간다
+            if (task.getGroupId() != null && coalesceTypes.contains(task.getType())) {
+                q.tasks.removeIf(old -> {
+                    if (!task.getType().equals(old.getType())) return false;
+                    if (old.getGroupId() == null || task.getGroupId().equals(old.getGroupId())) return false;
+                    taskLog.remove(old.getSeq());
+                    meters.coalesced.increment();
+                    return true;
+                });
+            }
+
+            boolean streamOpen = q.stream != null && q.unacked.size() < capacity;
+            if (!streamOpen && q.waiters.isEmpty() && q.tasks.size() >= capacity) {
+                // 꽉 차면 가장 오래된 작업을 버리고 새 작업을 받는다
+                taskLog.remove(q.tasks.pollFirst().getSeq());
+                meters.overflow.increment();
+            }
+
+            // 젯슨별 순서와 로그 id 순서가 같도록 잠금 안에서 기록
+            taskLog.append(deviceId, task);
+
+            // 푸시 채널이 열려 있으면 밀린 작업 뒤에 붙여 순서대로 보낸다 (ack 받을 때 로그에서 지움)
+            if (streamOpen) {
+                q.tasks.addLast(task);
+                drainToStream(q, now);
+                return null;
+            }
+            // 기다리는 요청이 있으면 큐를 거치지 않고 바로 넘긴다 (이미 끝난 요청이면 다음 Waiter 로)
+            Waiter w;
+            while ((w = q.waiters.pollFirst()) != null) {
+                if (w.complete() && handOut(q, w, List.of(task), now)) return null;
+            }
+            q.tasks.addLast(task);
+            return null;
+        });
+    }
+
+    /** 답변 음성 재생 작업 (deviceId 가 없으면 무시). groupId: 같은 답변의 문장들이 공유하는 키 */
+    public void enqueuePlayAudio(String deviceId, String groupId, String audioUrl, String text) {
+        if (deviceId == null || deviceId.isBlank()) return;
+        try {
+            enqueue(deviceId, DeviceTask.builder()
+                    .taskId(UUID.randomUUID().toString())
+                    .type("PLAY_AUDIO")
+                    .audioUrl(audioUrl)
+                    .text(text)
+                    .groupId(groupId)
+                    .createdAt(System.currentTimeMillis())
+                    .build());
+        } catch (GeneralException e) {
+            // 큐 수 제한에 걸린 경우. 답변 자체는 이미 나갔으므로 젯슨 재생만 건너뛴다
+            log.warn("Device queue limit reached, skipping audio: deviceId={}", deviceId);
+        }
+    }
+
+    /**
+     * Jetson 이 /next-task 롱폴링할 때 사용.
+     * 쌓인 작업이 있으면 호출 스레드에서 바로 onTask, 없으면 waitMs 안에 들어오는 작업을 enqueue 스레드에서 onTask,
+     * 끝내 없으면 스케줄러 스레드에서 onTimeout. onTask 가 false 를 돌려주면(응답이 이미 끝남) 작업은 큐 앞에 되돌린다.
+     */
+    public Waiter awaitNext(String deviceId, long waitMs, Predicate<DeviceTask> onTask, Runnable onTimeout) {
+        return awaitTasks(deviceId, 1, waitMs, 0, tasks -> onTask.test(tasks.get(0)), onTimeout);
+    }
+
+    /**
+     * 묶음 조회 (/tasks). 쌓인 작업을 최대 max 개 바로, 없으면 waitMs 안에 처음 들어오는 작업 1개를 onTasks 로 넘긴다.
+     * leaseMs > 0 이면 넘긴 작업은 임대 상태로 남고 ackTasks 로 지워야 한다. 그 전에 임대가 끝나면 큐 앞으로 돌아가 다시 전달된다.
+     * leaseMs = 0 이면 넘기는 즉시 처리 완료로 본다 (/next-task).
+     */
+    public Waiter awaitTasks(String deviceId, int max, long waitMs, long leaseMs,
+                             Predicate<List<DeviceTask>> onTasks, Runnable onTimeout) {
+        Waiter w = withQueue(deviceId, q -> {
+            Waiter waiter = new Waiter(q, leaseMs, onTasks, onTimeout);
+            long now = System.currentTimeMillis();
+            releaseExpiredLeases(q, now);
+            List<DeviceTask> batch = new ArrayList<>();
+            DeviceTask task;
+            while (batch.size() < max && (task = nextLive(q, now)) != null) {
+                batch.add(task);
+            }
+            if (!batch.isEmpty()) {
+                waiter.complete();
+                if (!handOut(q, waiter, batch, now)) {
+                    for (int i = batch.size() - 1; i >= 0; i--) q.tasks.addFirst(batch.get(i));
+                }
+                return waiter;
+            }
+            waiter.registered = true;
+            maxWaiting.accumulateAndGet(waiting.incrementAndGet(), Math::max);
+            q.waiters.addLast(waiter);
+            return waiter;
+        });
+        if (w.registered) {
+            w.timeout = scheduler.schedule(w::expire, Instant.now().plusMillis(waitMs));
+        }
+        return w;
+    }
+
+    /** 클라이언트가 끊기는 등 응답이 먼저 끝났을 때 대기 해제 */
+    public void cancel(Waiter w) {
+        if (w.complete()) {
+            synchronized (w.queue) {
+                w.queue.waiters.remove(w);
+                discardIfUnused(w.queue);
+            }
+        }
+    }
+
+    /**
+     * 푸시 채널 연결. lastAckedSeq(= Last-Event-ID) 까지는 처리 완료로 보고 버리고,
+     * 아직 ack 안 된 작업을 다시 보낸 뒤 큐에 쌓여 있던 작업을 이어서 보낸다.
+     * 같은 젯슨이 다시 붙으면 이전 연결은 닫는다.
+     */
+    public SseEmitter openStream(String deviceId, long lastAckedSeq) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        StreamSender previous = withQueue(deviceId, q -> {
+            StreamSender sender = new StreamSender(q, emitter);
+            emitter.onCompletion(() -> detach(q, sender));
+            emitter.onTimeout(() -> detach(q, sender));
+            emitter.onError(e -> detach(q, sender));
+
+            StreamSender old = q.stream;
+            if (old == null) streams.incrementAndGet();
+            q.stream = sender;
+            ackUpTo(q, lastAckedSeq);
+
+            long now = System.currentTimeMillis();
+            for (Iterator<DeviceTask> it = q.unacked.iterator(); it.hasNext(); ) {
+                DeviceTask t = it.next();
+                if (t.getExpiresAt() <= now) {
+                    it.remove();
+                    expired(q, t);
+                    continue;
+                }
+                t.setAttempt(t.getAttempt() + 1);
+                sender.offer(t);
+                replayed.increment();
+            }
+            drainToStream(q, now);
+            return old;
+        });
+        if (previous != null) previous.close(null);
+        return emitter;
+    }
+
+    /** seq 까지 처리 완료 (누적 ack). 지운 작업 수 반환 */
+    public int ack(String deviceId, long seq) {
+        DeviceQueue q = queues.get(deviceId);
+        if (q == null) return 0;
+        synchronized (q) {
+            long now = System.currentTimeMillis();
+            q.lastActiveAt = now;
+            int removed = ackUpTo(q, seq);
+            // 자리가 났으니 창이 차서 큐에 밀려 있던 작업을 이어서 보낸다
+            drainToStream(q, now);
+            return removed;
+        }
+    }
+
+    private int ackUpTo(DeviceQueue q, long seq) {
+        int removed = 0;
+        while (!q.unacked.isEmpty() && q.unacked.peekFirst().getSeq() <= seq) {
+            taskLog.remove(q.unacked.pollFirst().getSeq());
+            removed++;
+        }
+        return removed;
+    }
+
+    /** 묶음 조회로 임대한 작업 처리 완료 (seq 목록). 임대가 이미 끝나 다시 큐에 들어간 작업도 지운다 */
+    public int ackTasks(String deviceId, Collection<Long> seqs) {
+        DeviceQueue q = queues.get(deviceId);
+        if (q == null) return 0;
+        synchronized (q) {
+            q.lastActiveAt = System.currentTimeMillis();
+            int removed = 0;
+            for (Long seq : seqs) {
+                if (q.leased.remove(seq) != null) {
+                    taskLog.remove(seq);
+                    removed++;
+                }
+            }
+            if (removed < seqs.size()) {
+                // 늦게 온 ack: 되돌려진 작업이 아직 안 나갔으면 다시 보내지 않는다
+                Set<Long> late = new HashSet<>(seqs);
+                int before = q.tasks.size();
+                q.tasks.removeIf(t -> {
+                    if (!late.contains(t.getSeq())) return false;
+                    taskLog.remove(t.getSeq());
+                    return true;
+                });
+                removed += before - q.tasks.size();
+            }
+            return removed;
+        }
+    }
+
+    // 임대 시간이 지난 작업을 seq 순서대로 큐 앞에 되돌린다
+    private void releaseExpiredLeases(DeviceQueue q, long now) {
+        if (q.leased.isEmpty()) return;
+        List<DeviceTask> expiredLeases = new ArrayList<>();
+        q.leased.values().removeIf(lease -> {
+            if (lease.deadline() > now) return false;
+            expiredLeases.add(lease.task());
+            return true;
+        });
+        expiredLeases.sort(Comparator.comparingLong(DeviceTask::getSeq).reversed());
+        for (DeviceTask t : expiredLeases) {
+            q.tasks.addFirst(t);
+            redelivered.increment();
+        }
+    }
+
+    /**
+     * 젯슨 큐를 잠근 채로 action 실행. 정리(sweep)가 방금 지운 큐를 잡았으면 새 큐로 다시 시도한다.
+     * 알 수 없는 deviceId 로 만들어진 큐도 비어 있으면 idleEvictMs 뒤에 지워지므로 쌓이지 않는다.
+     */
+    private <T> T withQueue(String deviceId, Function<DeviceQueue, T> action) {
+        while (true) {
+            DeviceQueue q = queues.get(deviceId);
+            if (q == null) {
+                if (queues.size() >= maxQueues) {
+                    rejectedQueues.increment();
+                    throw new GeneralException(ErrorStatus.DEVICE_QUEUE_LIMIT);
+                }
+                q = queues.computeIfAbsent(deviceId, DeviceQueue::new);
+            }
+            synchronized (q) {
+                if (q.evicted) continue;
+                q.lastActiveAt = System.currentTimeMillis();
+                return action.apply(q);
+            }
+        }
+    }
+
+    // 만료된 작업은 건너뛰고(로그에서도 삭제) 다음 작업
+    private DeviceTask nextLive(DeviceQueue q, long now) {
+        DeviceTask task;
+        while ((task = q.tasks.pollFirst()) != null) {
+            if (task.getExpiresAt() > now) return task;
+            expired(q, task);
+        }
+        return null;
+    }
+
+    // q 잠금 안에서. 푸시 채널이 열려 있으면 ack 안 된 작업이 capacity 개가 될 때까지 큐 앞에서부터 보낸다
+    private void drainToStream(DeviceQueue q, long now) {
+        if (q.stream == null) return;
+        DeviceTask t;
+        while (q.unacked.size() < capacity && (t = nextLive(q, now)) != null) {
+            push(q, t, now);
+            pushed.increment();
+        }
     }
 
-    /** Jetson이 /next-task 폴링할 때 사용 */
-    public DeviceTask pollNext(String deviceId, long waitMs) throws InterruptedException {
-        var q = queues.computeIfAbsent(deviceId, k -> new LinkedBlockingQueue<>(1000));
-        return q.poll(waitMs, TimeUnit.MILLISECONDS);
+    // 큐에 작업이 다시 생겼을 때(임대 만료) 기다리던 롱폴링에 하나씩 넘긴다
+    private void handOffToWaiters(DeviceQueue q, long now) {
+        Waiter w;
+        DeviceTask task;
+        while (!q.waiters.isEmpty() && (task = nextLive(q, now)) != null) {
+            boolean taken = false;
+            while (!taken && (w = q.waiters.pollFirst()) != null) {
+                taken = w.complete() && handOut(q, w, List.of(task), now);
+            }
+            if (!taken) q.tasks.addFirst(task);
+        }
+    }
+
+    // q 잠금 안에서. 작업이 한 번도 없었던 큐는 대기/연결이 끝나면 바로 지운다 (지표도 없음)
+    private void discardIfUnused(DeviceQueue q) {
+        if (q.meters != null || q.evicted || !q.isIdle()) return;
+        q.evicted = true;
+        queues.remove(q.deviceId, q);
+    }
+
+    private void expired(DeviceQueue q, DeviceTask task) {
+        taskLog.remove(task.getSeq());
+        q.meters().expired.increment();
+    }
+
+    /**
+     * q 잠금 안에서 롱폴링 응답으로 작업을 넘긴다. attempt 증가와 임대 등록을 먼저 끝내고, 응답에는 복사본을 준다
+     * (직렬화는 다른 스레드에서 나중에 하므로, 그동안 sweep 이 원본을 건드려도 응답 내용은 그대로).
+     * 응답이 이미 끝나 받지 못하면 모두 되돌리고 false. 임대 없이 넘긴 작업(/next-task)은 ack 가 없으므로 바로 로그에서 지운다.
+     */
+    private boolean handOut(DeviceQueue q, Waiter w, List<DeviceTask> tasks, long now) {
+        List<DeviceTask> copies = new ArrayList<>(tasks.size());
+        for (DeviceTask t : tasks) {
+            t.setAttempt(t.getAttempt() + 1);
+            if (w.leaseMs > 0) q.leased.put(t.getSeq(), new Lease(t, now + w.leaseMs));
+            copies.add(t.toBuilder().build());
+        }
+        if (!w.onTasks.test(copies)) {
+            for (DeviceTask t : tasks) {
+                t.setAttempt(t.getAttempt() - 1);
+                q.leased.remove(t.getSeq());
+            }
+            return false;
+        }
+        for (DeviceTask t : tasks) {
+            if (t.getAttempt() == 1) {
+                q.meters().latency.record(Math.max(0, now - t.getCreatedAt()), TimeUnit.MILLISECONDS);
+            }
+            if (w.leaseMs <= 0) taskLog.remove(t.getSeq());
+        }
+        return true;
+    }
+
+    // q 잠금 안에서만 호출. 보내지 못해도 unacked 에 남아 다음 연결 때 다시 간다
+    private void push(DeviceQueue q, DeviceTask task, long now) {
+        q.unacked.addLast(task);
+        task.setAttempt(task.getAttempt() + 1);
+        if (task.getAttempt() == 1) {
+            q.meters().latency.record(Math.max(0, now - task.getCreatedAt()), TimeUnit.MILLISECONDS);
+        }
+        q.stream.offer(task);
+    }
+
+    // 연결이 끝났으면 큐에서 떼어낸다 (이미 새 연결로 바뀌었으면 그대로)
+    private void detach(DeviceQueue q, StreamSender sender) {
+        synchronized (q) {
+            if (q.stream == sender) {
+                q.stream = null;
+                streams.decrementAndGet();
+                discardIfUnused(q);
+            }
+        }
+    }
+
+    // 큐 잠금은 발신자를 읽을 때만 잡고, 실제 전송은 발신자가 실행기에서 한다
+    private void heartbeat() {
+        for (DeviceQueue q : queues.values()) {
+            StreamSender sender;
+            synchronized (q) {
+                sender = q.stream;
+            }
+            if (sender != null) sender.offer(SseEmitter.event().comment("ping"));
+        }
+    }
+
+    // 만료 작업을 큐/로그에서 빼고, 아무도 안 쓰는 빈 큐는 지표와 함께 제거
+    private void sweep() {
+        long now = System.currentTimeMillis();
+        for (DeviceQueue q : queues.values()) {
+            synchronized (q) {
+                q.tasks.removeIf(t -> {
+                    if (t.getExpiresAt() > now) return false;
+                    expired(q, t);
+                    return true;
+                });
+                q.unacked.removeIf(t -> {
+                    if (t.getExpiresAt() > now) return false;
+                    expired(q, t);
+                    return true;
+                });
+                q.leased.values().removeIf(lease -> {
+                    if (lease.task().getExpiresAt() > now) return false;
+                    expired(q, lease.task());
+                    return true;
+                });
+                releaseExpiredLeases(q, now);
+                // 되돌린 작업은 푸시 채널이나 기다리는 롱폴링에 바로 넘긴다
+                drainToStream(q, now);
+                if (!q.tasks.isEmpty() && !q.waiters.isEmpty()) handOffToWaiters(q, now);
+                if (q.isIdle() && now - q.lastActiveAt > idleEvictMs) {
+                    q.evicted = true;
+                    queues.remove(q.deviceId, q);
+                    if (q.meters != null) q.meters.remove();
+                    evicted.increment();
+                }
+            }
+        }
+    }
+
+    private class DeviceQueue {
+        private final String deviceId;
+        private final Deque<DeviceTask> tasks = new ArrayDeque<>();
+        private final Deque<Waiter> waiters = new ArrayDeque<>();
+        // 푸시 채널: 보냈지만 ack 안 된 작업 (seq 오름차순)
+        private final Deque<DeviceTask> unacked = new ArrayDeque<>();
+        // 묶음 조회: 임대 중인 작업 (seq → 임대 만료 시각)
+        private final Map<Long, Lease> leased = new LinkedHashMap<>();
+        private DeviceMeters meters;     // 첫 작업이 들어올 때 등록
+        private StreamSender stream;
+        private long lastActiveAt = System.currentTimeMillis();
+        private boolean evicted;
+
+        private DeviceQueue(String deviceId) {
+            this.deviceId = deviceId;
+        }
+
+        // q 잠금 안에서
+        private DeviceMeters meters() {
+            if (meters == null) meters = new DeviceMeters(this);
+            return meters;
+        }
+
+        private boolean isIdle() {
+            return tasks.isEmpty() && unacked.isEmpty() && leased.isEmpty() && waiters.isEmpty() && stream == null;
+        }
+
+        private synchronized int depth() {
+            return tasks.size() + unacked.size() + leased.size();
+        }
+    }
+
+    private record Lease(DeviceTask task, long deadline) {}
+
+    /**
+     * 푸시 연결 하나의 발신자. offer 는 잠금 안에서 불러도 막히지 않고(보낼 이벤트를 쌓기만), 실제 쓰기는
+     * deviceStreamExecutor 에서 연결당 한 번에 하나씩 순서대로 한다. 쓰기에 실패하면 연결을 닫고,
+     * 보낸 작업은 unacked 에 남아 있으므로 재연결 때 다시 간다.
+     */
+    private final class StreamSender implements Runnable {
+        private final DeviceQueue queue;
+        private final SseEmitter emitter;
+        private final ConcurrentLinkedQueue<SseEmitter.SseEventBuilder> outbox = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private final AtomicBoolean closed = new AtomicBoolean();
+
+        private StreamSender(DeviceQueue queue, SseEmitter emitter) {
+            this.queue = queue;
+            this.emitter = emitter;
+        }
+
+        // 직렬화는 전송 스레드에서 하므로 복사본을 넘긴다
+        void offer(DeviceTask task) {
+            offer(SseEmitter.event()
+                    .id(String.valueOf(task.getSeq()))
+                    .name("task")
+                    .data(task.toBuilder().build(), MediaType.APPLICATION_JSON));
+        }
+
+        void offer(SseEmitter.SseEventBuilder event) {
+            if (closed.get()) return;
+            outbox.add(event);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) return;
+            try {
+                sendExecutor.execute(this);
+            } catch (TaskRejectedException e) {
+                scheduled.set(false);
+                close(e);
+            }
+        }
+
+        @Override
+        public void run() {
+            try {
+                SseEmitter.SseEventBuilder event;
+                while (!closed.get() && (event = outbox.poll()) != null) {
+                    emitter.send(event);
+                }
+            } catch (IOException | IllegalStateException e) {
+                log.debug("Device stream send failed, waiting for reconnect", e);
+                close(e);
+            } finally {
+                scheduled.set(false);
+            }
+            // 마지막 poll 과 scheduled 해제 사이에 들어온 이벤트
+            if (!closed.get() && !outbox.isEmpty()) schedule();
+        }
+
+        // 잠금 밖에서 호출. error 가 null 이면 정상 종료(같은 젯슨이 다시 붙음)
+        void close(Throwable error) {
+            if (!closed.compareAndSet(false, true)) return;
+            outbox.clear();
+            detach(queue, this);
+            if (error == null) {
+                emitter.complete();
+            } else {
+                emitter.completeWithError(error);
+            }
+        }
+    }
+
+    /** 젯슨별 지표 (device 태그). 큐가 제거되면 같이 지워서 잘못된 deviceId 로 태그가 계속 늘지 않게 한다 */
+    private class DeviceMeters {
+        private final Counter expired;
+        private final Counter overflow;
+        private final Counter coalesced;
+        private final Timer latency;
+        private final List<Meter> all;
+
+        private DeviceMeters(DeviceQueue q) {
+            Gauge depth = Gauge.builder("eyedia.device.queue.depth", q, DeviceQueue::depth)
+                    .tag("device", q.deviceId)
+                    .register(meterRegistry);
+            this.expired = dropped(q, "expired");
+            this.overflow = dropped(q, "overflow");
+            this.coalesced = dropped(q, "coalesced");
+            // 작업 생성 → 젯슨에 전달까지
+            this.latency = Timer.builder("eyedia.device.task.latency")
+                    .tag("device", q.deviceId)
+                    .register(meterRegistry);
+            this.all = List.of(depth, expired, overflow, coalesced, latency);
+        }
+
+        private Counter dropped(DeviceQueue q, String reason) {
+            return Counter.builder("eyedia.device.tasks.dropped")
+                    .tag("device", q.deviceId)
+                    .tag("reason", reason)
+                    .register(meterRegistry);
+        }
+
+        private void remove() {
+            all.forEach(meterRegistry::remove);
+        }
+    }
+
+    /** 롱폴링 요청 하나. complete() 를 처음 부른 쪽(작업 전달/만료/취소)만 결과를 정한다 */
+    public final class Waiter {
+        private final DeviceQueue queue;
+        private final long leaseMs;
+        private final Predicate<List<DeviceTask>> onTasks;
+        private final Runnable onTimeout;
+        private final AtomicBoolean done = new AtomicBoolean();
+        private volatile boolean registered;
+        private volatile ScheduledFuture<?> timeout;
+
+        private Waiter(DeviceQueue queue, long leaseMs, Predicate<List<DeviceTask>> onTasks, Runnable onTimeout) {
+            this.queue = queue;
+            this.leaseMs = leaseMs;
+            this.onTasks = onTasks;
+            this.onTimeout = onTimeout;
+        }
+
+        private boolean complete() {
+            if (!done.compareAndSet(false, true)) return false;
+            if (registered) waiting.decrementAndGet();
+            ScheduledFuture<?> t = timeout;
+            if (t != null) t.cancel(false);
+            return true;
+        }
+
+        private void expire() {
+            if (complete()) {
+                synchronized (queue) {
+                    queue.waiters.remove(this);
+                    discardIfUnused(queue);
+                }
+                onTimeout.run();
+            }
+        }
     }
 }
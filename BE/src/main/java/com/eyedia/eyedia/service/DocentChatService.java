@@ -4,30 +4,63 @@ import com.eyedia.eyedia.domain.Message;
 import com.eyedia.eyedia.domain.Painting;
 import com.eyedia.eyedia.domain.enums.SenderType;
 import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.concurrent.SingleFlight;
 import com.eyedia.eyedia.global.error.status.ErrorStatus;
 import com.eyedia.eyedia.repository.MessageRepository;
 import com.eyedia.eyedia.repository.PaintingRepository;
+import com.eyedia.eyedia.service.llm.LlmBulkhead;
+import com.eyedia.eyedia.service.llm.LlmCircuitBreaker;
+import com.eyedia.eyedia.service.llm.LlmHedger;
+import com.eyedia.eyedia.service.llm.LlmPriority;
+import com.eyedia.eyedia.service.llm.LlmUsageRecorder;
+import com.eyedia.eyedia.service.llm.PromptType;
 import com.openai.client.OpenAIClient;
+import com.openai.core.http.StreamResponse;
 import com.openai.models.ChatModel;
 import com.openai.models.responses.Response;
 import com.openai.models.responses.ResponseCreateParams;
 import com.openai.models.responses.ResponseInputItem;
 import com.openai.models.responses.ResponseOutputText;
+import com.openai.models.responses.ResponseStreamEvent;
+import com.openai.models.responses.ResponseUsage;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 public class DocentChatService {
 
+    private static final ChatModel MODEL = ChatModel.CHATGPT_4O_LATEST;
+
     private final PaintingRepository paintingRepository;
     private final OpenAIClient openAI;
     private final MessageRepository messageRepository;
+    private final MeterRegistry meterRegistry;
+    private final LlmBulkhead bulkhead;
+    private final LlmCircuitBreaker circuitBreaker;
+    private final LlmHedger hedger;
+    private final LlmUsageRecorder usageRecorder;
+
+    private final SingleFlight<PromptKey, Answer> inFlight = new SingleFlight<>();
 
     public Prompt basePrompt(Painting p, String question){
+        return basePrompt(p, question, "");
+    }
+
+    /**
+     * history: ConversationMemoryService 가 토큰 예산 안에서 만든 (요약 + 최근 대화) 블록
+     */
+    public Prompt basePrompt(Painting p, String question, String history){
 
         String system = """
             너는 미술관 도슨트야. 한국어로 친절하고 자연스럽게 설명해.
@@ -41,16 +74,39 @@ public class DocentChatService {
             작가: %s
             전시: %s
             기본설명: %s
-
+            %s
             [관람객 질문]
             %s
             """.formatted(
                 nz(p.getTitle()), nz(p.getArtist()),
                 "메트로폴리탄 미술관", nz(p.getDescription()),
+                (history == null || history.isBlank()) ? "" : "\n[이전 대화]\n" + history + "\n",
                 nz(question)
         );
 
-        return new Prompt(system, user);
+        return new Prompt(system, user, PromptType.DOCENT, p.getPaintingId());
+    }
+
+    public Prompt summaryPrompt(String previousSummary, String newTurns, int maxChars){
+        String system = """
+            너는 미술관 도슨트 대화의 기록 담당이야.
+            - 기존 요약과 새 대화를 합쳐 하나의 요약으로 갱신해
+            - 관람객의 관심사, 이미 설명한 내용, 남은 질문 위주로
+            - %d자 이내, 한국어
+            """.formatted(maxChars);
+
+        String user = """
+            [기존 요약]
+            %s
+
+            [새 대화]
+            %s
+            """.formatted(
+                previousSummary == null || previousSummary.isBlank() ? "(없음)" : previousSummary,
+                nz(newTurns)
+        );
+
+        return new Prompt(system, user, PromptType.SUMMARY, null);
     }
 
     public Prompt gazeAreaPrompt(String paintingTitle, String quadrant, String description){
@@ -71,50 +127,170 @@ public class DocentChatService {
                 nz(description)
         );
 
-        return new Prompt(system, user);
+        return new Prompt(system, user, PromptType.GAZE_AREA, null);
     }
 
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("eyedia.docent.llm.requests", inFlight, SingleFlight::executedCount)
+                .tag("role", "leader")
+                .description("실제로 OpenAI 를 호출한 요청 수")
+                .register(meterRegistry);
+        FunctionCounter.builder("eyedia.docent.llm.requests", inFlight, SingleFlight::coalescedCount)
+                .tag("role", "coalesced")
+                .description("진행 중인 동일 프롬프트 호출에 합류한 요청 수")
+                .register(meterRegistry);
+        Gauge.builder("eyedia.docent.llm.inflight", inFlight, SingleFlight::inFlightCount)
+                .register(meterRegistry);
+    }
+
+    /**
+     * 동일한 (system, user, model, priority) 프롬프트가 이미 진행 중이면 그 호출 결과를 같이 받는다 (single-flight).
+     * 우선순위가 다르면 합치지 않는다: 사용자가 기다리는 요청이 사전 생성 같은 BACKGROUND 호출에 붙어
+     * 벌크헤드 대기열 뒤쪽에서 기다리지 않도록 (같은 프롬프트가 우선순위별로 최대 한 번씩 더 나갈 수 있다).
+     * DocentController.ask / detect-area 모두 여기를 거친다.
+     */
     public Answer answer(Prompt prompt) {
-        var system = prompt.system();
-        var user = prompt.user();
+        return answer(prompt, LlmPriority.INTERACTIVE);
+    }
+
+    public Answer answer(Prompt prompt, LlmPriority priority) {
+        ResponseCreateParams params = params(prompt);
+        var key = new PromptKey(prompt.system(), prompt.user(), MODEL.toString(), priority);
+        return inFlight.execute(key, () -> {
+            // 자리는 실행기에서 도는 실제 호출이 끝날 때 반납된다 (타임아웃으로 먼저 빠져도 호출이 끝날 때까지 유지)
+            LlmBulkhead.Permit permit = bulkhead.acquire(priority);
+            try {
+                return circuitBreaker.execute(() -> hedger.call(permit, () -> call(prompt, params)));
+            } finally {
+                permit.releaseIfOwned();
+            }
+        });
+    }
+
+    // 헤지 시도마다 따로 과금되므로 사용량도 시도 단위로 기록
+    private Answer call(Prompt prompt, ResponseCreateParams params) {
+        String model = params.model().toString();
+        long startedAt = System.nanoTime();
+        Response resp;
+        try {
+            resp = openAI.responses().create(params);
+        } catch (RuntimeException e) {
+            usageRecorder.recordFailure(prompt.type(), prompt.paintingId(), model, System.nanoTime() - startedAt);
+            throw e;
+        }
+        recordUsage(prompt, model, resp.usage(), System.nanoTime() - startedAt);
 
+        // ✅ 텍스트 추출: output -> message -> content -> outputText -> text
+        String text = resp.output().stream()
+                .flatMap(item -> item.message().stream())
+                .flatMap(msg -> msg.content().stream())
+                .flatMap(content -> content.outputText().stream())
+                .map(ResponseOutputText::text)
+                .collect(Collectors.joining());
+
+        return new Answer(text, model);
+    }
+
+    /**
+     * 스트리밍 모드: 텍스트 델타가 도착할 때마다 onDelta 로 넘기고, 끝나면 전체 답변을 반환
+     */
+    public Answer answerStream(Prompt prompt, Consumer<String> onDelta) {
+        return bulkhead.execute(LlmPriority.INTERACTIVE, () -> stream(prompt, params(prompt), onDelta));
+    }
+
+    private Answer stream(Prompt prompt, ResponseCreateParams params, Consumer<String> onDelta) {
+        StringBuilder text = new StringBuilder();
+        String model = params.model().toString();
+        Optional<ResponseUsage> usage = Optional.empty();
+
+        // 스트리밍은 전체 길이가 답변 길이에 비례하므로 서킷 브레이커에는 TTFT 로 느림을 판단
+        circuitBreaker.acquirePermission();
+        long startedAt = System.nanoTime();
+        long ttft = -1;
+        try (StreamResponse<ResponseStreamEvent> stream = openAI.responses().createStreaming(params)) {
+            var events = stream.stream().iterator();
+            while (events.hasNext()) {
+                ResponseStreamEvent event = events.next();
+                // 사용량은 마지막 response.completed 이벤트에만 실린다
+                if (event.completed().isPresent()) {
+                    usage = event.completed().get().response().usage();
+                }
+                var textDelta = event.outputTextDelta();
+                if (textDelta.isEmpty()) continue;
+
+                String delta = textDelta.get().delta();
+                if (ttft < 0) {
+                    // 첫 토큰까지 걸린 시간 (TTFT)
+                    ttft = System.nanoTime() - startedAt;
+                    meterRegistry.timer("eyedia.docent.stream.ttft").record(ttft, TimeUnit.NANOSECONDS);
+                }
+                text.append(delta);
+                onDelta.accept(delta);
+            }
+        } catch (RuntimeException e) {
+            circuitBreaker.onError(System.nanoTime() - startedAt, e);
+            usageRecorder.recordFailure(prompt.type(), prompt.paintingId(), model, System.nanoTime() - startedAt);
+            throw e;
+        }
+        circuitBreaker.onSuccess(ttft < 0 ? System.nanoTime() - startedAt : ttft);
+        recordUsage(prompt, model, usage, System.nanoTime() - startedAt);
+        meterRegistry.timer("eyedia.docent.stream.duration")
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+
+        return new Answer(text.toString(), model);
+    }
+
+    private void recordUsage(Prompt prompt, String model, Optional<ResponseUsage> usage, long wallNanos) {
+        usageRecorder.record(prompt.type(), prompt.paintingId(), model,
+                usage.map(ResponseUsage::inputTokens).orElse(0L),
+                usage.map(ResponseUsage::outputTokens).orElse(0L),
+                usage.map(u -> u.inputTokensDetails().cachedTokens()).orElse(0L),
+                wallNanos);
+    }
+
+    private ResponseCreateParams params(Prompt prompt) {
         // ✅ Responses API의 입력은 ResponseInputItem으로 메시지 역할/내용을 지정
         List<ResponseInputItem> inputs = List.of(
                 ResponseInputItem.ofMessage(
                         ResponseInputItem.Message.builder()
                                 .role(ResponseInputItem.Message.Role.SYSTEM)
-                                .addInputTextContent(system)
+                                .addInputTextContent(prompt.system())
                                 .build()
                 ),
                 ResponseInputItem.ofMessage(
                         ResponseInputItem.Message.builder()
                                 .role(ResponseInputItem.Message.Role.USER)
-                                .addInputTextContent(user)
+                                .addInputTextContent(prompt.user())
                                 .build()
                 )
         );
 
-        ResponseCreateParams params = ResponseCreateParams.builder()
-                .model(ChatModel.CHATGPT_4O_LATEST)
+        return ResponseCreateParams.builder()
+                .model(MODEL)
                 .input(ResponseCreateParams.Input.ofResponse(inputs))
                 .maxOutputTokens(2000)
                 .build();
-
-        Response resp = openAI.responses().create(params);
-
-        // ✅ 텍스트 추출: output -> message -> content -> outputText -> text
-        String text = resp.output().stream()
-                .flatMap(item -> item.message().stream())
-                .flatMap(msg -> msg.content().stream())
-                .flatMap(content -> content.outputText().stream())
-                .map(ResponseOutputText::text)
-                .collect(Collectors.joining());
-
-        return new Answer(text, params.model().toString());
     }
 
     private static String nz(String s){ return s == null ? "" : s; }
 
-    public record Prompt(String system, String user) {}
+    /**
+     * type/paintingId 는 사용량 집계용 (프롬프트 내용·single-flight 키에는 영향 없음)
+     */
+    public record Prompt(String system, String user, PromptType type, Long paintingId) {
+        public Prompt(String system, String user) {
+            this(system, user, PromptType.DOCENT, null);
+        }
+
+        public Prompt withType(PromptType type) {
+            return new Prompt(system, user, type, paintingId);
+        }
+
+        public Prompt forPainting(Long paintingId) {
+            return new Prompt(system, user, type, paintingId);
+        }
+    }
     public record Answer(String text, String model) {}
+    private record PromptKey(String system, String user, String model, LlmPriority priority) {}
 }
\ No newline at end of file
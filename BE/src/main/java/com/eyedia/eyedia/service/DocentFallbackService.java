@@ -0,0 +1,96 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Message;
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.domain.enums.SenderType;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.repository.MessageRepository;
+import com.eyedia.eyedia.service.llm.LlmPriority;
+import com.openai.errors.OpenAIException;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.EnumSet;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * LLM 이 응답하지 못할 때(서킷 OPEN, 타임아웃, 공급자 오류, 과부하) 관람객 질문에 대신 줄 답변.
+ * 순서: 미리 생성한 기본 설명 → 이 방의 마지막 도슨트 답변 → 작품의 저장된 description.
+ * 사전 생성/요약처럼 결과를 저장하는 백그라운드 작업에는 쓰지 않는다 (대체 답변이 저장되면 안 됨).
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DocentFallbackService {
+
+    private static final Set<ErrorStatus> DEGRADABLE = EnumSet.of(
+            ErrorStatus.LLM_CIRCUIT_OPEN,
+            ErrorStatus.LLM_TIMEOUT,
+            ErrorStatus.LLM_BUSY,
+            ErrorStatus.LLM_QUEUE_TIMEOUT);
+
+    private final DocentChatService docentChatService;
+    private final DocentPregenerationService docentPregenerationService;
+    private final MessageRepository messageRepository;
+    private final MeterRegistry meterRegistry;
+
+    public DocentChatService.Answer answerWithFallback(DocentChatService.Prompt prompt, Painting p, LlmPriority priority) {
+        try {
+            return docentChatService.answer(prompt, priority);
+        } catch (RuntimeException e) {
+            return fallback(p, e).orElseThrow(() -> e);
+        }
+    }
+
+    /** 스트리밍: 토큰이 하나도 안 나갔을 때만 대체 답변을 한 번에 흘려보낸다 */
+    public DocentChatService.Answer answerStreamWithFallback(DocentChatService.Prompt prompt, Painting p,
+                                                             Consumer<String> onDelta) {
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            return docentChatService.answerStream(prompt, delta -> {
+                started.set(true);
+                onDelta.accept(delta);
+            });
+        } catch (RuntimeException e) {
+            if (started.get()) throw e;
+            var fallback = fallback(p, e).orElseThrow(() -> e);
+            onDelta.accept(fallback.text());
+            return fallback;
+        }
+    }
+
+    private Optional<DocentChatService.Answer> fallback(Painting p, RuntimeException cause) {
+        if (!isDegradable(cause)) return Optional.empty();
+
+        Optional<DocentChatService.Answer> answer = docentPregenerationService.findFresh(p)
+                .map(d -> new DocentChatService.Answer(d.getContent(), "fallback:pregenerated"))
+                .or(() -> messageRepository
+                        .findTopByPainting_PaintingIdAndSenderOrderByMessageIdDesc(p.getPaintingId(), SenderType.ASSISTANT)
+                        .map(Message::getContent)
+                        .filter(text -> !text.isBlank())
+                        .map(text -> new DocentChatService.Answer(text, "fallback:history")))
+                .or(() -> Optional.ofNullable(p.getDescription())
+                        .filter(text -> !text.isBlank())
+                        .map(text -> new DocentChatService.Answer(text, "fallback:description")));
+
+        answer.ifPresent(a -> {
+            meterRegistry.counter("eyedia.docent.fallback", "source", a.model()).increment();
+            log.warn("Docent answer degraded to {}: paintingId={}, cause={}",
+                    a.model(), p.getPaintingId(), cause.getMessage());
+        });
+        return answer;
+    }
+
+    private static boolean isDegradable(RuntimeException e) {
+        if (e instanceof GeneralException ge) {
+            return ge.getCode() instanceof ErrorStatus status && DEGRADABLE.contains(status);
+        }
+        return e instanceof OpenAIException;
+    }
+}
@@ -0,0 +1,138 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.domain.PregeneratedDescription;
+import com.eyedia.eyedia.domain.common.HashUtil;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.repository.PaintingRepository;
+import com.eyedia.eyedia.repository.PregeneratedDescriptionRepository;
+import com.eyedia.eyedia.service.llm.LlmPriority;
+import com.eyedia.eyedia.service.llm.PromptType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+/**
+ * 작품 등록 시 기본 도슨트 설명을 백그라운드로 미리 만들어 두고,
+ * 첫 질문(기본 질문)이 오면 LLM 호출 없이 DB 에서 바로 꺼내 준다.
+ */
+@Slf4j
+@Service
+public class DocentPregenerationService {
+
+    private final PaintingRepository paintingRepository;
+    private final PregeneratedDescriptionRepository pregeneratedDescriptionRepository;
+    private final DocentChatService docentChatService;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final Counter generated;
+    private final Counter failed;
+    private final Counter served;
+
+    @Value("${eyedia.docent.pregen.enabled:true}")
+    private boolean enabled;
+
+    @Value("${eyedia.docent.pregen.defaultQuestion:이 작품에 대해 설명해줘.}")
+    private String defaultQuestion;
+
+    public DocentPregenerationService(PaintingRepository paintingRepository,
+                                      PregeneratedDescriptionRepository pregeneratedDescriptionRepository,
+                                      DocentChatService docentChatService,
+                                      @Qualifier("docentPregenExecutor") ThreadPoolTaskExecutor executor,
+                                      MeterRegistry meterRegistry) {
+        this.paintingRepository = paintingRepository;
+        this.pregeneratedDescriptionRepository = pregeneratedDescriptionRepository;
+        this.docentChatService = docentChatService;
+        this.executor = executor;
+
+        this.generated = meterRegistry.counter("eyedia.docent.pregen.jobs", "result", "generated");
+        this.failed = meterRegistry.counter("eyedia.docent.pregen.jobs", "result", "failed");
+        this.served = meterRegistry.counter("eyedia.docent.pregen.served");
+    }
+
+    /** 작품 저장 직후 호출 (실패해도 등록 자체는 막지 않음) */
+    public void schedule(Long paintingId) {
+        if (!enabled) return;
+        if (!submit(paintingId)) {
+            log.warn("Docent pregeneration queue full, skipped paintingId={}", paintingId);
+        }
+    }
+
+    /** 작품 설명이 바뀌었을 때 수동 재생성 */
+    public void regenerate(Long paintingId) {
+        paintingRepository.findByPaintingId(paintingId)
+                .orElseThrow(() -> new GeneralException(ErrorStatus.PAINTING_NOT_FOUND));
+        if (!submit(paintingId)) {
+            throw new GeneralException(ErrorStatus.LLM_BUSY);
+        }
+    }
+
+    private boolean submit(Long paintingId) {
+        try {
+            executor.execute(() -> generate(paintingId));
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
+    private void generate(Long paintingId) {
+        try {
+            Painting p = paintingRepository.findByPaintingId(paintingId).orElse(null);
+            if (p == null || p.getArtId() == null) return;
+
+            var answer = docentChatService.answer(
+                    docentChatService.basePrompt(p, defaultQuestion).withType(PromptType.PREGENERATION),
+                    LlmPriority.BACKGROUND);
+            String hash = sourceHash(p);
+
+            var description = pregeneratedDescriptionRepository.findByArtId(p.getArtId())
+                    .orElseGet(() -> PregeneratedDescription.builder().artId(p.getArtId()).build());
+            description.update(answer.text(), answer.model(), hash);
+            pregeneratedDescriptionRepository.save(description);
+
+            generated.increment();
+            log.info("Docent description pregenerated: artId={}", p.getArtId());
+        } catch (Exception e) {
+            failed.increment();
+            log.error("Docent pregeneration failed: paintingId={}", paintingId, e);
+        }
+    }
+
+    /** 기본 질문(또는 빈 질문)이면 미리 만든 설명을 돌려준다 */
+    public Optional<DocentChatService.Answer> findDefaultAnswer(Painting p, String question) {
+        if (!isDefaultQuestion(question)) return Optional.empty();
+
+        var answer = findFresh(p).map(d -> new DocentChatService.Answer(d.getContent(), d.getModel()));
+        answer.ifPresent(a -> served.increment());
+        return answer;
+    }
+
+    /** 현재 작품 정보로 만든 설명만 (제목/작가/설명이 바뀌었으면 무시) */
+    public Optional<PregeneratedDescription> findFresh(Painting p) {
+        if (p.getArtId() == null) return Optional.empty();
+        String hash = sourceHash(p);
+        return pregeneratedDescriptionRepository.findByArtId(p.getArtId())
+                .filter(d -> hash.equals(d.getSourceHash()));
+    }
+
+    private boolean isDefaultQuestion(String question) {
+        return question == null || question.isBlank() || normalize(question).equals(normalize(defaultQuestion));
+    }
+
+    private static String normalize(String s) {
+        return s.strip().replaceAll("[\\s.?!]+$", "").replaceAll("\\s+", " ");
+    }
+
+    private static String sourceHash(Painting p) {
+        return HashUtil.sha256Hex(p.getTitle() + "|" + p.getArtist() + "|" + p.getDescription());
+    }
+}
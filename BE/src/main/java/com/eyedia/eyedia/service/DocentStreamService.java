@@ -0,0 +1,211 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Message;
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.domain.enums.SenderType;
+import com.eyedia.eyedia.dto.MessageDTO;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.repository.MessageRepository;
+import com.eyedia.eyedia.service.tts.SentenceTtsPipeline;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.http.MediaType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 도슨트 답변을 토큰 단위로 흘려보내는 스트리밍 모드.
+ * 같은 프레임을 STOMP(/room/{paintingId})와 SSE 양쪽으로 보내고,
+ * 마지막 done 프레임에 저장된 Message id 를 실어 보낸다.
+ * pipelineAudio 요청이면 문장이 끝날 때마다 TTS 를 미리 돌려 audio 프레임을 문장 순서대로 보내고,
+ * deviceId 가 있으면 같은 순서로 젯슨 작업 큐에도 PLAY_AUDIO 를 넣는다.
+ */
+@Slf4j
+@Service
+public class DocentStreamService {
+
+    private final DocentChatService docentChatService;
+    private final DocentPregenerationService docentPregenerationService;
+    private final ConversationMemoryService conversationMemoryService;
+    private final DocentFallbackService docentFallbackService;
+    private final MessageRepository messageRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final SentenceTtsPipeline ttsPipeline;
+    private final DeviceTaskService deviceTaskService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Value("${eyedia.docentStream.sseTimeoutMs:60000}")
+    private long sseTimeoutMs;
+
+    public DocentStreamService(DocentChatService docentChatService,
+                               DocentPregenerationService docentPregenerationService,
+                               ConversationMemoryService conversationMemoryService,
+                               DocentFallbackService docentFallbackService,
+                               MessageRepository messageRepository,
+                               SimpMessagingTemplate messagingTemplate,
+                               SentenceTtsPipeline ttsPipeline,
+                               DeviceTaskService deviceTaskService,
+                               @Qualifier("docentStreamExecutor") ThreadPoolTaskExecutor executor) {
+        this.docentChatService = docentChatService;
+        this.docentPregenerationService = docentPregenerationService;
+        this.conversationMemoryService = conversationMemoryService;
+        this.docentFallbackService = docentFallbackService;
+        this.messageRepository = messageRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.ttsPipeline = ttsPipeline;
+        this.deviceTaskService = deviceTaskService;
+        this.executor = executor;
+    }
+
+    public SseEmitter stream(Painting painting, MessageDTO.AskRequest req, String userName) {
+        SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+        try {
+            executor.execute(() -> run(painting, req, userName, emitter));
+        } catch (TaskRejectedException e) {
+            throw new GeneralException(ErrorStatus.CHAT_STREAM_BUSY);
+        }
+        return emitter;
+    }
+
+    private void run(Painting painting, MessageDTO.AskRequest req, String userName, SseEmitter emitter) {
+        String question = req.getText();
+        FrameSink sink = new FrameSink(painting.getPaintingId(), userName, emitter);
+        // 이 답변의 문장 음성은 같은 groupId 로 묶어 젯슨 큐에서 서로 대체되지 않게 한다
+        String answerGroup = UUID.randomUUID().toString();
+        SentenceTtsPipeline.Session audio = req.isPipelineAudio()
+                ? ttsPipeline.open(null, chunk -> {
+                    sink.audio(chunk);
+                    deviceTaskService.enqueuePlayAudio(req.getDeviceId(), answerGroup, chunk.audioUrl(), chunk.text());
+                })
+                : null;
+        Consumer<String> onDelta = audio == null ? sink::delta : delta -> {
+            sink.delta(delta);
+            audio.accept(delta);
+        };
+        try {
+            String history = conversationMemoryService.historyFor(painting.getPaintingId());
+
+            Message q = Message.builder()
+                    .sender(SenderType.USER)
+                    .painting(painting)
+                    .content(question)
+                    .build();
+            messageRepository.save(q);
+
+            // 미리 생성된 기본 설명이 있으면 한 번에 흘려보낸다
+            var pregenerated = docentPregenerationService.findDefaultAnswer(painting, question);
+            pregenerated.ifPresent(cached -> onDelta.accept(cached.text()));
+            var answer = pregenerated.orElseGet(() -> docentFallbackService.answerStreamWithFallback(
+                    docentChatService.basePrompt(painting, question, history), painting, onDelta));
+
+            Message a = Message.builder()
+                    .sender(SenderType.ASSISTANT)
+                    .painting(painting)
+                    .content(answer.text())
+                    .build();
+            messageRepository.save(a);
+            conversationMemoryService.onMessagesSaved(painting.getPaintingId());
+
+            sink.done(a.getMessageId(), answer);
+            if (audio != null) {
+                sink.audioDone(audio.finish());
+            }
+            emitter.complete();
+        } catch (Exception e) {
+            log.error("Docent stream failed: paintingId={}", painting.getPaintingId(), e);
+            sink.error();
+            emitter.complete();
+        }
+    }
+
+    /** 한 답변의 프레임 순번/전송 대상을 묶어 관리 */
+    private class FrameSink {
+        private final Long paintingId;
+        private final String userName;
+        private final SseEmitter emitter;
+        // 텍스트 스트림 스레드와 TTS 완료 스레드가 같이 보내므로 프레임 메서드는 synchronized (seq 순서 = 전송 순서)
+        private final AtomicLong seq = new AtomicLong();
+        private volatile boolean sseOpen = true;
+
+        FrameSink(Long paintingId, String userName, SseEmitter emitter) {
+            this.paintingId = paintingId;
+            this.userName = userName;
+            this.emitter = emitter;
+        }
+
+        synchronized void delta(String delta) {
+            send("delta", MessageDTO.ChatStreamFrameDTO.builder()
+                    .paintingId(paintingId)
+                    .seq(seq.getAndIncrement())
+                    .delta(delta)
+                    .build());
+        }
+
+        synchronized void done(Long messageId, DocentChatService.Answer answer) {
+            send("done", MessageDTO.ChatStreamFrameDTO.builder()
+                    .paintingId(paintingId)
+                    .seq(seq.getAndIncrement())
+                    .done(true)
+                    .messageId(messageId)
+                    .answer(answer.text())
+                    .model(answer.model())
+                    .build());
+        }
+
+        synchronized void audio(SentenceTtsPipeline.Chunk chunk) {
+            send("audio", MessageDTO.ChatStreamFrameDTO.builder()
+                    .paintingId(paintingId)
+                    .seq(seq.getAndIncrement())
+                    .audioIndex(chunk.index())
+                    .audioUrl(chunk.audioUrl())
+                    .build());
+        }
+
+        synchronized void audioDone(List<String> playlist) {
+            send("audio-done", MessageDTO.ChatStreamFrameDTO.builder()
+                    .paintingId(paintingId)
+                    .seq(seq.getAndIncrement())
+                    .audioDone(true)
+                    .audioPlaylist(playlist)
+                    .build());
+        }
+
+        synchronized void error() {
+            send("error", MessageDTO.ChatStreamFrameDTO.builder()
+                    .paintingId(paintingId)
+                    .seq(seq.getAndIncrement())
+                    .done(true)
+                    .build());
+        }
+
+        private void send(String event, MessageDTO.ChatStreamFrameDTO frame) {
+            String room = "/room/" + paintingId;
+            if (userName != null) {
+                messagingTemplate.convertAndSendToUser(userName, room, frame);
+            } else {
+                messagingTemplate.convertAndSend(room, frame);
+            }
+
+            if (!sseOpen) return;
+            try {
+                emitter.send(SseEmitter.event()
+                        .id(String.valueOf(frame.getSeq()))
+                        .name(event)
+                        .data(frame, MediaType.APPLICATION_JSON));
+            } catch (Exception e) {
+                // 클라이언트가 SSE를 끊어도 답변 생성/저장/STOMP 전송은 계속
+                sseOpen = false;
+            }
+        }
+    }
+}
@@ -10,4 +10,9 @@ public class DummyTtsService implements TtsService {
     public String synthesizeAndGetUrl(String text, String voice){
         return "http://localhost:8080/tts/sample-ok.mp3";
     }
+
+    @Override
+    public boolean isFallback(String url) {
+        return false;
+    }
 }
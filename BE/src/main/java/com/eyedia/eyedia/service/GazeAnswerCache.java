@@ -0,0 +1,90 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.common.HashUtil;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * detect-area 답변 캐시.
+ * 같은 작품(artId)·같은 사분면·같은 크롭 설명 묶음이면 프롬프트가 사실상 같으므로 LLM 답변을 재사용한다.
+ * 크기 초과 시 가장 오래 안 쓴 항목부터(LRU), TTL 이 지나면 조회 시점에 버린다.
+ */
+@Component
+public class GazeAnswerCache {
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final LinkedHashMap<Key, CachedAnswer> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expirations;
+
+    public GazeAnswerCache(@Value("${eyedia.gazeCache.maxSize:1000}") int maxSize,
+                           @Value("${eyedia.gazeCache.ttlSeconds:600}") long ttlSeconds,
+                           MeterRegistry meterRegistry) {
+        this.maxSize = maxSize;
+        this.ttlMillis = Duration.ofSeconds(ttlSeconds).toMillis();
+
+        this.hits = meterRegistry.counter("eyedia.gaze.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("eyedia.gaze.cache.requests", "result", "miss");
+        this.sizeEvictions = meterRegistry.counter("eyedia.gaze.cache.evictions", "cause", "size");
+        this.expirations = meterRegistry.counter("eyedia.gaze.cache.evictions", "cause", "expired");
+        Gauge.builder("eyedia.gaze.cache.size", this, GazeAnswerCache::size)
+                .register(meterRegistry);
+    }
+
+    public synchronized Optional<DocentChatService.Answer> get(Key key) {
+        CachedAnswer cached = entries.get(key);
+        if (cached == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        if (cached.expiresAt() < System.currentTimeMillis()) {
+            entries.remove(key);
+            expirations.increment();
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(cached.answer());
+    }
+
+    public synchronized void put(Key key, DocentChatService.Answer answer) {
+        entries.put(key, new CachedAnswer(answer, System.currentTimeMillis() + ttlMillis));
+        Iterator<Key> eldest = entries.keySet().iterator();
+        while (entries.size() > maxSize && eldest.hasNext()) {
+            eldest.next();
+            eldest.remove();
+            sizeEvictions.increment();
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * 캐시 키: (artId, 사분면, 정규화한 크롭 설명들의 해시).
+     * 설명은 공백 정리·소문자화 후 정렬하므로 순서나 띄어쓰기 차이는 같은 키가 된다.
+     */
+    public static Key key(Long artId, String quadrant, List<String> cropDescriptions) {
+        List<String> normalized = cropDescriptions.stream()
+                .filter(Objects::nonNull)
+                .map(d -> d.strip().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT))
+                .sorted()
+                .toList();
+        return new Key(artId, quadrant == null ? "" : quadrant.strip(), HashUtil.sha256Hex(String.join("\n", normalized)));
+    }
+
+    public record Key(Long artId, String quadrant, String cropHash) {}
+
+    private record CachedAnswer(DocentChatService.Answer answer, long expiresAt) {}
+}
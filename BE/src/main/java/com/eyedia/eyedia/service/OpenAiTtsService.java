@@ -1,24 +1,42 @@
 package com.eyedia.eyedia.service;
 
+import com.eyedia.eyedia.global.concurrent.SingleFlight;
+import com.eyedia.eyedia.service.storage.MediaStorage;
+import com.eyedia.eyedia.service.tts.TtsCacheIndex;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Primary;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URI;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.*;
 import java.security.MessageDigest;
 
 @Slf4j
 @Service
 @Primary
+@RequiredArgsConstructor
 public class OpenAiTtsService implements TtsService {
-    @Value("${eyedia.tts.storageBaseDir:/var/eyedia/cdn/tts}")
-    private String storageBaseDir;
+
+    private static final String FALLBACK_PATH = "/tts/sample-fallback.mp3";
+    // 오류 응답 본문은 로그/예외 메시지용으로 앞부분만
+    private static final int ERROR_BODY_LIMIT = 4096;
+
+    private final TtsCacheIndex cacheIndex;
+    private final MediaStorage storage;
+    private final MeterRegistry meterRegistry;
 
     @Value("${eyedia.tts.cdnBaseUrl:http://localhost:8080}")
     private String cdnBaseUrl;
@@ -29,7 +47,23 @@ public class OpenAiTtsService implements TtsService {
     @Value("${eyedia.tts.defaultVoice:alloy}")
     private String defaultVoice;
 
+    @Value("${eyedia.tts.speechUrl:https://api.openai.com/v1/audio/speech}")
+    private String speechUrl;
+
     private final HttpClient http = HttpClient.newHttpClient();
+    private final SingleFlight<String, String> inFlight = new SingleFlight<>();
+
+    @PostConstruct
+    void registerMetrics() {
+        FunctionCounter.builder("eyedia.tts.synthesis.requests", inFlight, SingleFlight::executedCount)
+                .tag("role", "leader")
+                .register(meterRegistry);
+        FunctionCounter.builder("eyedia.tts.synthesis.requests", inFlight, SingleFlight::coalescedCount)
+                .tag("role", "coalesced")
+                .register(meterRegistry);
+        Gauge.builder("eyedia.tts.synthesis.inflight", inFlight, SingleFlight::inFlightCount)
+                .register(meterRegistry);
+    }
 
     @Override
     public String synthesizeAndGetUrl(String text, String voice) {
@@ -38,17 +72,35 @@ public class OpenAiTtsService implements TtsService {
 
             // 1) 캐시 키 (sha256)
             String hash = sha256(text + "|" + v);
-            Path dir = Paths.get(storageBaseDir, "tts");
-            Path file = dir.resolve(hash + ".mp3");
 
-            // 2) 이미 있으면 캐시된 URL 반환
-            if (Files.exists(file)) {
-                return cdnBaseUrl + "/tts/" + file.getFileName();
+            // 2) 이미 있으면 캐시된 URL 반환 (디스크 대신 메모리 인덱스 조회)
+            if (cacheIndex.lookup(hash).isPresent()) {
+                return urlOf(hash);
             }
 
-            Files.createDirectories(dir);
+            // 3) 같은 hash 합성이 진행 중이면 그 결과를 같이 기다린다 (OpenAI 호출 1번)
+            return inFlight.execute(hash, () -> synthesize(hash, text, v));
+
+        } catch (Exception e) {
+            log.error("OpenAI TTS error", e);
+            return cdnBaseUrl + FALLBACK_PATH;
+        }
+    }
+
+    @Override
+    public boolean isFallback(String url) {
+        return url != null && url.endsWith(FALLBACK_PATH);
+    }
 
-            // 3) OpenAI 요청 JSON
+    private String synthesize(String hash, String text, String voice) {
+        // 앞선 leader 가 방금 끝냈을 수도 있으니 한 번 더 확인
+        if (cacheIndex.lookup(hash).isPresent()) {
+            return urlOf(hash);
+        }
+        try {
+            String key = cacheIndex.keyOf(hash);
+
+            // OpenAI 요청 JSON
             String body = """
             {
               "model": "gpt-4o-mini-tts",
@@ -56,35 +108,52 @@ public class OpenAiTtsService implements TtsService {
               "input": %s,
               "format": "mp3"
             }
-            """.formatted(v, toJsonString(text));
+            """.formatted(voice, toJsonString(text));
 
             HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create("https://api.openai.com/v1/audio/speech"))
+                    .uri(URI.create(speechUrl))
                     .header("Authorization", "Bearer " + openaiApiKey)
                     .header("Content-Type", "application/json")
                     .POST(HttpRequest.BodyPublishers.ofString(body))
                     .build();
 
-            // 4) 요청 → mp3 바이트 받기
-            HttpResponse<byte[]> resp = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
-            if (resp.statusCode() / 100 != 2) {
-                throw new RuntimeException("OpenAI TTS failed: " + resp.statusCode() + " / " +
-                        new String(resp.body()));
+            // 응답 본문을 메모리에 모으지 않고 임시 파일로 바로 흘려 쓴다 (합성 1건당 힙 사용량 일정)
+            // 다 받은 뒤 저장소로 넘긴다 (로컬: rename, S3: 업로드) → 읽는 쪽은 완성된 mp3 만 보게 된다
+            Path tmp = storage.createTempFile(hash);
+            try {
+                HttpResponse<Path> resp = http.send(req, HttpResponse.BodyHandlers.ofFile(tmp));
+                if (resp.statusCode() / 100 != 2) {
+                    throw new RuntimeException("OpenAI TTS failed: " + resp.statusCode() + " / " + errorBody(tmp));
+                }
+                long size = storage.put(key, tmp);
+                cacheIndex.register(hash, size);
+            } finally {
+                Files.deleteIfExists(tmp);
             }
+            log.info("TTS generated: {}", key);
+
+            return urlOf(hash);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("TTS interrupted", e);
+        }
+    }
 
-            // 5) 저장
-            Files.write(file, resp.body(), StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
-            log.info("TTS generated: {}", file);
-
-            // 6) CDN URL 반환
-            return cdnBaseUrl + "/tts/" + file.getFileName();
-
-        } catch (Exception e) {
-            log.error("OpenAI TTS error", e);
-            return cdnBaseUrl + "/tts/sample-fallback.mp3";
+    // 본문이 UTF-8 이 아니거나 읽다 실패해도 상태 코드는 남도록 관대하게 읽는다 (잘못된 바이트는 대체 문자)
+    private static String errorBody(Path tmp) {
+        try (InputStream in = Files.newInputStream(tmp)) {
+            return new String(in.readNBytes(ERROR_BODY_LIMIT), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return "(body unreadable: " + e.getMessage() + ")";
         }
     }
 
+    private String urlOf(String hash) {
+        return storage.urlOf(cacheIndex.keyOf(hash));
+    }
+
     private static String sha256(String s) {
         try {
             MessageDigest md = MessageDigest.getInstance("SHA-256");
@@ -0,0 +1,119 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.domain.Exhibition;
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.dto.MessageDTO;
+import com.eyedia.eyedia.repository.PaintingRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * artId → 템플릿 그림(user null) 스냅샷.
+ * /events/detect 핫패스에서 DB 조회 없이 그림/전시 정보를 꺼내기 위한 읽기 전용 카탈로그.
+ * 쓰기(저장/삭제/확정) 시에만 새 Map을 만들어 통째로 교체한다 (copy-on-write).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaintingCatalog {
+
+    public static final String IMAGE_BASE_URL = "https://s3-eyedia.s3.ap-northeast-2.amazonaws.com/";
+
+    private final PaintingRepository paintingRepository;
+
+    private volatile Map<Long, Entry> snapshot = Map.of();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void reload() {
+        Map<Long, List<Painting>> byArtId = paintingRepository.findAllNullUserWithExhibition().stream()
+                .collect(Collectors.groupingBy(Painting::getArtId));
+
+        Map<Long, Entry> next = new HashMap<>();
+        byArtId.forEach((artId, paintings) -> next.put(artId, Entry.of(artId, paintings)));
+        snapshot = Map.copyOf(next);
+        log.info("Painting catalog loaded: {} artIds", next.size());
+    }
+
+    /** 해당 artId 한 건만 DB에서 다시 읽어 스냅샷을 교체 */
+    public synchronized void refresh(Long artId) {
+        if (artId == null) return;
+
+        List<Painting> paintings = paintingRepository.findNullUserByArtIdWithExhibition(artId);
+        Map<Long, Entry> next = new HashMap<>(snapshot);
+        if (paintings.isEmpty()) {
+            next.remove(artId);
+        } else {
+            next.put(artId, Entry.of(artId, paintings));
+        }
+        snapshot = Map.copyOf(next);
+    }
+
+    public Optional<Entry> find(Long artId) {
+        if (artId == null) return Optional.empty();
+        return Optional.ofNullable(snapshot.get(artId));
+    }
+
+    /** 배치 조회: 같은 스냅샷 하나로 모두 해석 (요청 중간에 갱신돼도 일관된 결과) */
+    public Map<Long, Entry> findAll(Collection<Long> artIds) {
+        Map<Long, Entry> current = snapshot;
+        Map<Long, Entry> found = new HashMap<>();
+        for (Long artId : artIds) {
+            if (artId == null) continue;
+            Entry e = current.get(artId);
+            if (e != null) found.put(artId, e);
+        }
+        return found;
+    }
+
+    public static String imageUrl(Long exhibitionId, Long artId, String name) {
+        return IMAGE_BASE_URL + exhibitionId + "/" + artId + "/" + name + ".jpg";
+    }
+
+    public record Entry(
+            Long artId,
+            List<Long> paintingIds,   // 같은 artId의 템플릿이 여러 개면 PAINTING_CONFLICT
+            Long paintingId,
+            String title,
+            String artist,
+            String description,
+            Long exhibitionId,        // 전시 미연결이면 null
+            String exhibitionTitle,
+            String imgUrl
+    ) {
+        static Entry of(Long artId, List<Painting> paintings) {
+            Painting p = paintings.get(0);
+            Exhibition e = p.getExhibition();
+            List<Long> ids = paintings.stream().map(Painting::getPaintingId).toList();
+
+            return new Entry(
+                    artId, ids, p.getPaintingId(),
+                    p.getTitle(), p.getArtist(), p.getDescription(),
+                    e == null ? null : e.getExhibitionsId(),
+                    e == null ? null : e.getTitle(),
+                    e == null ? null : imageUrl(e.getExhibitionsId(), artId, String.valueOf(artId))
+            );
+        }
+
+        public boolean isConflict() {
+            return paintingIds.size() > 1;
+        }
+
+        public MessageDTO.ChatImageResponseDTO toImageResponse() {
+            return MessageDTO.ChatImageResponseDTO.builder()
+                    .paintingId(paintingId)
+                    .imgUrl(imgUrl)
+                    .title(title)
+                    .artist(artist)
+                    .description(description)
+                    .exhibition(exhibitionTitle)
+                    .artId(artId)
+                    .build();
+        }
+    }
+}
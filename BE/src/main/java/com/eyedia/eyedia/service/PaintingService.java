@@ -26,6 +26,8 @@ public class PaintingService {
     private final UserRepository userRepository;
     private final ExhibitionRepository exhibitionRepository;
     private final ExhibitionCommandService exhibitionCommandService;
+    private final PaintingCatalog paintingCatalog;
+    private final DocentPregenerationService docentPregenerationService;
 
     public UserFacingDTO.PaintingConfirmResponse confirmPainting(Long paintingId) {
         Long userId = SecurityUtil.getCurrentUserId();
@@ -44,6 +46,9 @@ public class PaintingService {
         // 전시 방문 이력 저장
         exhibitionCommandService.addVisit(response);
 
+        // 템플릿(user null)이 사용자 방으로 바뀌었으니 카탈로그 갱신
+        paintingCatalog.refresh(response.getArtId());
+
         return UserFacingDTO.PaintingConfirmResponse.builder()
                 .chatRoomId(response.getPaintingId())
                 .paintingId(response.getPaintingId())
@@ -84,10 +89,17 @@ public class PaintingService {
                 .build();
 
         paintingRepository.save(painting);
+        paintingCatalog.refresh(painting.getArtId());
+        // 첫 관람객이 LLM 지연을 겪지 않도록 기본 설명을 미리 생성
+        docentPregenerationService.schedule(painting.getPaintingId());
 
         return painting.getPaintingId();
     }
 
+    public void regenerateDocentDescription(Long paintingId) {
+        docentPregenerationService.regenerate(paintingId);
+    }
+
     public void deletePainting(Long paintingId) {
         Painting painting = paintingRepository.findByPaintingId(paintingId)
                 .orElseThrow(() -> new GeneralException(ErrorStatus.PAINTING_NOT_FOUND));
@@ -95,5 +107,6 @@ public class PaintingService {
             painting.getMessages().forEach(message -> messageRepository.delete(message));
         }
         paintingRepository.delete(painting);
+        paintingCatalog.refresh(painting.getArtId());
     }
 }
\ No newline at end of file
@@ -1,5 +1,9 @@
 package com.eyedia.eyedia.service;
 
 public interface TtsService {
+    /** voice 가 null/빈 값이면 eyedia.tts.defaultVoice. 캐시 키는 텍스트와 실제 사용한 보이스로 정한다 */
     String synthesizeAndGetUrl(String text, String voice);
+
+    /** 합성 실패로 대체 음성 URL 이 나왔는지 */
+    boolean isFallback(String url);
 }
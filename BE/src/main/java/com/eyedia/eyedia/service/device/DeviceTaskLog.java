@@ -0,0 +1,369 @@
+package com.eyedia.eyedia.service.device;
+
+import com.eyedia.eyedia.dto.DeviceTask;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * 젯슨 작업의 추가 전용(append-only) 로그. 재배포/재시작해도 아직 처리 안 된 작업이 남는다.
+ * - 모든 젯슨이 함께 쓰는 세그먼트 파일(기본 64MB)을 메모리 매핑해서 쓰므로 append 는 메모리 복사 한 번
+ * - fsync 는 fsyncIntervalMs 마다 쓴 구간만 모아서 (그 사이 OS 가 죽으면 마지막 구간은 잃을 수 있음)
+ * - 작업을 처리하면 REMOVE 레코드를 남기고, 살아 있는 작업이 없는 가장 오래된 세그먼트부터 삭제
+ * - 오래된 세그먼트 하나에 안 끝난 작업 몇 개가 남아 디스크를 붙잡으면 같은 id 로 최신 세그먼트에 옮겨 적는다
+ * 레코드: [본문 길이 int][CRC32C int][본문]. 본문 = 종류(byte) + id(long) + (ENQUEUE_GROUP 이면 deviceId, 작업 필드)
+ * 시작할 때 전체 세그먼트를 순서대로 읽어 "같은 id 는 마지막 레코드가 이긴다" 규칙으로 살아 있는 작업을 복구한다.
+ */
+@Slf4j
+@Component
+public class DeviceTaskLog implements AutoCloseable {
+
+    private static final byte ENQUEUE = 1;          // expiresAt 없던 첫 형식 (읽기만)
+    private static final byte REMOVE = 2;
+    private static final byte ENQUEUE_TTL = 3;      // groupId 없던 형식 (읽기만)
+    private static final byte ENQUEUE_GROUP = 4;
+    private static final int HEADER = 8;
+    private static final String SUFFIX = ".log";
+
+    private final Path dir;
+    private final int segmentBytes;
+    private final int maxSegments;
+    private final ScheduledExecutorService flusher;
+
+    private final TreeMap<Long, Segment> segments = new TreeMap<>();   // 첫 id → 세그먼트 (오래된 순)
+    private final Map<Long, Live> live = new HashMap<>();             // 아직 REMOVE 안 된 작업
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer scratch = ByteBuffer.allocate(4096);
+    private Segment active;
+    private boolean compacting;
+    private long nextId = 1;
+    private long appended;
+    private long removed;
+
+    public DeviceTaskLog(@Value("${eyedia.device.log.dir:./data/device-log}") String dir,
+                         @Value("${eyedia.device.log.segmentBytes:67108864}") int segmentBytes,
+                         @Value("${eyedia.device.log.maxSegments:8}") int maxSegments,
+                         @Value("${eyedia.device.log.fsyncIntervalMs:20}") long fsyncIntervalMs) {
+        this.dir = Paths.get(dir);
+        this.segmentBytes = segmentBytes;
+        this.maxSegments = Math.max(2, maxSegments);
+        this.flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "device-log-fsync");
+            t.setDaemon(true);
+            return t;
+        });
+        this.flusher.scheduleWithFixedDelay(this::flush, fsyncIntervalMs, fsyncIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /** 로그를 읽어 살아 있는 작업을 id 순으로 돌려준다. 다른 메서드보다 먼저 한 번만 호출 */
+    public synchronized List<Recovered> recover() throws IOException {
+        Files.createDirectories(dir);
+        List<Path> files;
+        try (Stream<Path> list = Files.list(dir)) {
+            files = list.filter(f -> f.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+
+        for (Path file : files) {
+            long firstId = firstIdOf(file);
+            Segment segment = new Segment(file, firstId);
+            segments.put(firstId, segment);
+            nextId = Math.max(nextId, firstId);
+
+            ByteBuffer buf;
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+                buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            }
+            segment.end = replay(buf, segment);
+        }
+
+        if (segments.isEmpty()) {
+            active = openSegment(nextId, 0);
+        } else {
+            Segment last = segments.lastEntry().getValue();
+            active = openSegment(last.firstId, last.end);
+        }
+        truncateHead();
+
+        List<Recovered> result = new ArrayList<>();
+        live.forEach((id, l) -> result.add(new Recovered(l.deviceId, l.task)));
+        result.sort(Comparator.comparingLong(r -> r.task().getSeq()));
+        log.info("Device task log recovered: {} segments, {} pending tasks, next id {}",
+                segments.size(), result.size(), nextId);
+        return result;
+    }
+
+    /** 작업을 기록하고 id 를 돌려준다 (task.seq 에도 넣음) */
+    public synchronized long append(String deviceId, DeviceTask task) {
+        long id = nextId++;
+        task.setSeq(id);
+        write(encodeEnqueue(id, deviceId, task));
+        live.put(id, new Live(deviceId, task, active));
+        active.live++;
+        appended++;
+        if (segments.size() > maxSegments && !compacting) compactHead();
+        return id;
+    }
+
+    /** 처리 완료. 이미 지워졌거나 모르는 id 면 무시 */
+    public synchronized void remove(long id) {
+        Live l = live.remove(id);
+        if (l == null) return;
+        write(encodeRemove(id));
+        l.segment.live--;
+        removed++;
+        truncateHead();
+    }
+
+    public synchronized int liveCount() {
+        return live.size();
+    }
+
+    public synchronized int segmentCount() {
+        return segments.size();
+    }
+
+    public synchronized long appendedCount() {
+        return appended;
+    }
+
+    public synchronized long removedCount() {
+        return removed;
+    }
+
+    @Override
+    @PreDestroy
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    // 마지막 fsync 이후 쓴 구간만 디스크로
+    void flush() {
+        MappedByteBuffer buf;
+        int from, to;
+        synchronized (this) {
+            if (active == null || active.end == active.forced) return;
+            buf = active.buf;
+            from = active.forced;
+            to = active.end;
+            active.forced = to;
+        }
+        buf.force(from, to - from);
+    }
+
+    private void write(ByteBuffer body) {
+        int length = body.remaining();
+        if (HEADER + length > segmentBytes) {
+            throw new IllegalArgumentException("Device task too large for log segment: " + length);
+        }
+        if (active.end + HEADER + length > segmentBytes) roll();
+
+        crc.reset();
+        crc.update(body.duplicate());
+        MappedByteBuffer buf = active.buf;
+        int at = active.end;
+        buf.putInt(at + 4, (int) crc.getValue());
+        buf.put(at + HEADER, body, body.position(), length);
+        // 길이를 마지막에 써서, 중간에 죽으면 읽는 쪽은 길이 0(끝) 이나 CRC 불일치로 멈춘다
+        buf.putInt(at, length);
+        active.end = at + HEADER + length;
+    }
+
+    private void roll() {
+        active.buf.force(active.forced, active.end - active.forced);
+        active.forced = active.end;
+        active.buf = null;                         // 매핑은 GC 가 해제
+        // 파일 이름 = 그 시점의 nextId (옮겨 적기만으로 두 번 넘어가도 이름이 겹치지 않게)
+        active = openSegment(Math.max(nextId, active.firstId + 1), 0);
+    }
+
+    private Segment openSegment(long firstId, int end) {
+        Path file = dir.resolve(String.format("%020d%s", firstId, SUFFIX));
+        boolean existed = Files.exists(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            MappedByteBuffer buf = ch.map(FileChannel.MapMode.READ_WRITE, 0, segmentBytes);
+            // 복구한 세그먼트에 깨진 꼬리(쓰다 만 레코드)가 있으면 지워서 다음 레코드 뒤에 남지 않게
+            for (int i = end; existed && i < segmentBytes && i < end + HEADER + 1024 * 1024; i++) {
+                if (buf.get(i) != 0) {
+                    for (int j = end; j < segmentBytes; j++) buf.put(j, (byte) 0);
+                    break;
+                }
+            }
+            Segment segment = segments.computeIfAbsent(firstId, id -> new Segment(file, id));
+            segment.buf = buf;
+            segment.end = end;
+            segment.forced = end;
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // 가장 오래된 세그먼트부터, 살아 있는 작업이 없으면 삭제 (현재 쓰는 세그먼트는 제외)
+    private void truncateHead() {
+        while (segments.size() > 1) {
+            Segment head = segments.firstEntry().getValue();
+            if (head == active || head.live > 0) return;
+            segments.pollFirstEntry();
+            try {
+                Files.deleteIfExists(head.file);
+            } catch (IOException e) {
+                log.warn("Device task log segment delete failed: {}", head.file, e);
+            }
+        }
+    }
+
+    // 오래된 세그먼트에 남은 작업을 같은 id 로 최신 세그먼트에 다시 적고 그 세그먼트를 놓아준다
+    private void compactHead() {
+        Segment head = segments.firstEntry().getValue();
+        if (head == active) return;
+        compacting = true;
+        try {
+            for (Map.Entry<Long, Live> e : live.entrySet()) {
+                Live l = e.getValue();
+                if (l.segment != head) continue;
+                write(encodeEnqueue(e.getKey(), l.deviceId, l.task));
+                e.setValue(new Live(l.deviceId, l.task, active));
+                head.live--;
+                active.live++;
+            }
+        } finally {
+            compacting = false;
+        }
+        truncateHead();
+    }
+
+    private int replay(ByteBuffer buf, Segment segment) {
+        int at = 0;
+        while (at + HEADER <= buf.limit()) {
+            int length = buf.getInt(at);
+            if (length <= 0 || at + HEADER + length > buf.limit()) break;
+            ByteBuffer body = buf.slice(at + HEADER, length);
+            crc.reset();
+            crc.update(body.duplicate());
+            if ((int) crc.getValue() != buf.getInt(at + 4)) break;
+            try {
+                apply(body, segment);
+            } catch (BufferUnderflowException | IllegalArgumentException e) {
+                break;
+            }
+            at += HEADER + length;
+        }
+        return at;
+    }
+
+    private void apply(ByteBuffer body, Segment segment) {
+        byte kind = body.get();
+        long id = body.getLong();
+        nextId = Math.max(nextId, id + 1);
+        if (kind == REMOVE) {
+            Live l = live.remove(id);
+            if (l != null) l.segment.live--;
+            return;
+        }
+        if (kind != ENQUEUE && kind != ENQUEUE_TTL && kind != ENQUEUE_GROUP) throw new IllegalArgumentException("Unknown record kind " + kind);
+        String deviceId = getString(body);
+        DeviceTask task = DeviceTask.builder()
+                .taskId(getString(body))
+                .type(getString(body))
+                .audioUrl(getString(body))
+                .text(getString(body))
+                .createdAt(body.getLong())
+                .seq(id)
+                .build();
+        if (kind != ENQUEUE) task.setExpiresAt(body.getLong());
+        if (kind == ENQUEUE_GROUP) task.setGroupId(getString(body));
+        Live previous = live.put(id, new Live(deviceId, task, segment));
+        if (previous != null) previous.segment.live--;   // 옮겨 적은 사본이면 나중 것이 이긴다
+        segment.live++;
+    }
+
+    private ByteBuffer encodeEnqueue(long id, String deviceId, DeviceTask task) {
+        byte[][] strings = {utf8(deviceId), utf8(task.getTaskId()), utf8(task.getType()),
+                utf8(task.getAudioUrl()), utf8(task.getText())};
+        byte[] groupId = utf8(task.getGroupId());
+        int size = 1 + 8 + 8 + 8 + 4 + (groupId == null ? 0 : groupId.length);
+        for (byte[] s : strings) size += 4 + (s == null ? 0 : s.length);
+
+        ByteBuffer b = scratch(size);
+        b.put(ENQUEUE_GROUP).putLong(id);
+        for (byte[] s : strings) putString(b, s);
+        b.putLong(task.getCreatedAt());
+        b.putLong(task.getExpiresAt());
+        putString(b, groupId);
+        return b.flip();
+    }
+
+    private static void putString(ByteBuffer b, byte[] s) {
+        if (s == null) {
+            b.putInt(-1);
+        } else {
+            b.putInt(s.length).put(s);
+        }
+    }
+
+    private ByteBuffer encodeRemove(long id) {
+        return scratch(1 + 8).put(REMOVE).putLong(id).flip();
+    }
+
+    private ByteBuffer scratch(int size) {
+        if (scratch.capacity() < size) scratch = ByteBuffer.allocate(Math.max(size, scratch.capacity() * 2));
+        return scratch.clear();
+    }
+
+    private static byte[] utf8(String s) {
+        return s == null ? null : s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static String getString(ByteBuffer b) {
+        int length = b.getInt();
+        if (length < 0) return null;
+        if (length > b.remaining()) throw new IllegalArgumentException("Corrupt string length " + length);
+        byte[] bytes = new byte[length];
+        b.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static long firstIdOf(Path file) {
+        String name = file.getFileName().toString();
+        return Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+    }
+
+    public record Recovered(String deviceId, DeviceTask task) {}
+
+    private record Live(String deviceId, DeviceTask task, Segment segment) {}
+
+    private static class Segment {
+        private final Path file;
+        private final long firstId;
+        private MappedByteBuffer buf;
+        private int end;        // 다음 레코드를 쓸 위치
+        private int forced;     // 여기까지 fsync 됨
+        private int live;       // 이 세그먼트에 ENQUEUE 된 채 남아 있는 작업 수
+
+        private Segment(Path file, long firstId) {
+            this.file = file;
+            this.firstId = firstId;
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.eyedia.eyedia.service.llm;
+
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * LLM 호출 전용 벌크헤드.
+ * 동시에 OpenAI 로 나가는 호출 수를 maxConcurrent 로 묶고, 넘치는 요청은 우선순위별 대기열에서 기다린다.
+ * 대기열(maxQueue)이 꽉 차면 기다리지 않고 바로 LLM429 로 실패한다.
+ * 다른 스레드에서 도는 호출(헤지)은 Permit 을 넘겨받아, 호출자가 먼저 빠져도 실제 호출이 끝날 때 반납한다.
+ */
+@Slf4j
+@Component
+public class LlmBulkhead {
+
+    private final int maxConcurrent;
+    private final int maxQueue;
+    private final long maxWaitNanos;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Map<LlmPriority, ArrayDeque<Waiter>> waiters = new EnumMap<>(LlmPriority.class);
+    private int running;
+    private int queued;
+
+    private final Counter rejected;
+    private final Counter timedOut;
+    private final Map<LlmPriority, Timer> waitTimers = new EnumMap<>(LlmPriority.class);
+
+    public LlmBulkhead(@Value("${eyedia.llm.maxConcurrent:8}") int maxConcurrent,
+                       @Value("${eyedia.llm.maxQueue:32}") int maxQueue,
+                       @Value("${eyedia.llm.maxWaitMs:15000}") long maxWaitMs,
+                       MeterRegistry meterRegistry) {
+        this.maxConcurrent = maxConcurrent;
+        this.maxQueue = maxQueue;
+        this.maxWaitNanos = TimeUnit.MILLISECONDS.toNanos(maxWaitMs);
+
+        for (LlmPriority p : LlmPriority.values()) {
+            waiters.put(p, new ArrayDeque<>());
+            waitTimers.put(p, meterRegistry.timer("eyedia.llm.bulkhead.wait", "priority", p.name()));
+            Gauge.builder("eyedia.llm.bulkhead.queued", this, b -> b.queuedOf(p))
+                    .tag("priority", p.name())
+                    .register(meterRegistry);
+        }
+        Gauge.builder("eyedia.llm.bulkhead.running", this, LlmBulkhead::runningCount)
+                .register(meterRegistry);
+        this.rejected = meterRegistry.counter("eyedia.llm.bulkhead.rejected", "cause", "queue_full");
+        this.timedOut = meterRegistry.counter("eyedia.llm.bulkhead.rejected", "cause", "wait_timeout");
+    }
+
+    public <T> T execute(LlmPriority priority, Supplier<T> call) {
+        Permit permit = acquire(priority);
+        try {
+            return call.get();
+        } finally {
+            permit.release();
+        }
+    }
+
+    /** 자리가 날 때까지 (최대 maxWaitMs) 기다려 받는다 */
+    public Permit acquire(LlmPriority priority) {
+        acquireSlot(priority);
+        return new Permit();
+    }
+
+    /** 기다리는 요청이 없고 자리가 비어 있을 때만 바로 받는다 (없으면 null). 헤지처럼 없어도 되는 호출용 */
+    public Permit tryAcquire() {
+        lock.lock();
+        try {
+            if (running >= maxConcurrent || queued > 0) return null;
+            running++;
+            return new Permit();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void acquireSlot(LlmPriority priority) {
+        long startedAt = System.nanoTime();
+        lock.lock();
+        try {
+            if (running < maxConcurrent && queued == 0) {
+                running++;
+                return;
+            }
+            if (queued >= maxQueue) {
+                rejected.increment();
+                throw new GeneralException(ErrorStatus.LLM_BUSY);
+            }
+
+            Waiter waiter = new Waiter(lock.newCondition());
+            waiters.get(priority).addLast(waiter);
+            queued++;
+
+            long remaining = maxWaitNanos;
+            try {
+                while (!waiter.granted) {
+                    if (remaining <= 0) {
+                        waiters.get(priority).remove(waiter);
+                        queued--;
+                        timedOut.increment();
+                        throw new GeneralException(ErrorStatus.LLM_QUEUE_TIMEOUT);
+                    }
+                    remaining = waiter.condition.awaitNanos(remaining);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                if (waiter.granted) {
+                    // 자리를 넘겨받은 직후 인터럽트 → 다음 대기자에게 다시 넘긴다
+                    handOffOrFree();
+                } else {
+                    waiters.get(priority).remove(waiter);
+                    queued--;
+                }
+                throw new GeneralException(ErrorStatus.LLM_BUSY);
+            }
+        } finally {
+            lock.unlock();
+            waitTimers.get(priority).record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void release() {
+        lock.lock();
+        try {
+            handOffOrFree();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // 대기자가 있으면 슬롯을 그대로 넘기고(running 유지), 없으면 슬롯 반납
+    private void handOffOrFree() {
+        for (LlmPriority p : LlmPriority.values()) {
+            Waiter next = waiters.get(p).pollFirst();
+            if (next != null) {
+                queued--;
+                next.granted = true;
+                next.condition.signal();
+                return;
+            }
+        }
+        running--;
+    }
+
+    public int runningCount() {
+        lock.lock();
+        try {
+            return running;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private int queuedOf(LlmPriority priority) {
+        lock.lock();
+        try {
+            return waiters.get(priority).size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** 받은 자리 하나. release 는 여러 번 불러도 한 번만 반납된다 */
+    public final class Permit {
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean handedOff;
+
+        private Permit() {
+        }
+
+        /** 실행기에 넘긴 호출이 반납을 맡는다 (이후 releaseIfOwned 는 아무것도 안 함) */
+        public void handOff() {
+            handedOff = true;
+        }
+
+        /** 호출 경로의 finally 용: 실행기에 넘기지 못했을 때만 반납 */
+        public void releaseIfOwned() {
+            if (!handedOff) release();
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true)) LlmBulkhead.this.release();
+        }
+    }
+
+    private static final class Waiter {
+        private final Condition condition;
+        private boolean granted;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+}
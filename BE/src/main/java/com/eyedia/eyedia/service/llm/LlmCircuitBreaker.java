@@ -0,0 +1,189 @@
+package com.eyedia.eyedia.service.llm;
+
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.openai.errors.OpenAIServiceException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * OpenAI 호출 서킷 브레이커.
+ * 최근 windowSize 건 중 실패율 또는 느린 호출 비율이 임계치를 넘으면 OPEN 으로 바꿔 openMs 동안 바로 LLM502 로 실패시킨다.
+ * 그 뒤 HALF_OPEN 에서 halfOpenCalls 건만 시험 삼아 보내 보고, 모두 정상이면 CLOSED 로 돌아간다.
+ * 400 번대(429 제외) 응답과 LLM429(우리 쪽 실행기 포화)는 공급자 문제가 아니라서 실패로 세지 않는다.
+ */
+@Slf4j
+@Component
+public class LlmCircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int windowSize;
+    private final int minCalls;
+    private final double failureRateThreshold;
+    private final double slowRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+
+    // 최근 호출 결과 (원형 버퍼)
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private int recorded;
+    private int next;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermits;
+    private int halfOpenSucceeded;
+
+    private final Counter notPermitted;
+    private final Map<State, Counter> transitions = new EnumMap<>(State.class);
+
+    public LlmCircuitBreaker(@Value("${eyedia.llm.circuit.windowSize:50}") int windowSize,
+                             @Value("${eyedia.llm.circuit.minCalls:10}") int minCalls,
+                             @Value("${eyedia.llm.circuit.failureRateThreshold:0.5}") double failureRateThreshold,
+                             @Value("${eyedia.llm.circuit.slowRateThreshold:0.8}") double slowRateThreshold,
+                             @Value("${eyedia.llm.circuit.slowCallMs:10000}") long slowCallMs,
+                             @Value("${eyedia.llm.circuit.openMs:30000}") long openMs,
+                             @Value("${eyedia.llm.circuit.halfOpenCalls:3}") int halfOpenCalls,
+                             MeterRegistry meterRegistry) {
+        this.windowSize = windowSize;
+        this.minCalls = Math.min(minCalls, windowSize);
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowRateThreshold = slowRateThreshold;
+        this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(slowCallMs);
+        this.openNanos = TimeUnit.MILLISECONDS.toNanos(openMs);
+        this.halfOpenCalls = halfOpenCalls;
+        this.failed = new boolean[windowSize];
+        this.slow = new boolean[windowSize];
+
+        this.notPermitted = meterRegistry.counter("eyedia.llm.circuit.rejected");
+        for (State s : State.values()) {
+            transitions.put(s, meterRegistry.counter("eyedia.llm.circuit.transitions", "to", s.name()));
+        }
+        Gauge.builder("eyedia.llm.circuit.state", this, b -> b.state().ordinal())
+                .description("0=CLOSED, 1=OPEN, 2=HALF_OPEN")
+                .register(meterRegistry);
+    }
+
+    public <T> T execute(Supplier<T> call) {
+        acquirePermission();
+        long startedAt = System.nanoTime();
+        try {
+            T result = call.get();
+            onSuccess(System.nanoTime() - startedAt);
+            return result;
+        } catch (RuntimeException e) {
+            onError(System.nanoTime() - startedAt, e);
+            throw e;
+        }
+    }
+
+    /** OPEN 이면 LLM502, HALF_OPEN 이면 시험 호출 자리가 남았을 때만 통과 */
+    public synchronized void acquirePermission() {
+        if (state == State.OPEN && System.nanoTime() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED -> { }
+            case HALF_OPEN -> {
+                if (halfOpenPermits <= 0) {
+                    notPermitted.increment();
+                    throw new GeneralException(ErrorStatus.LLM_CIRCUIT_OPEN);
+                }
+                halfOpenPermits--;
+            }
+            case OPEN -> {
+                notPermitted.increment();
+                throw new GeneralException(ErrorStatus.LLM_CIRCUIT_OPEN);
+            }
+        }
+    }
+
+    public synchronized void onSuccess(long elapsedNanos) {
+        record(false, elapsedNanos >= slowCallNanos);
+    }
+
+    public synchronized void onError(long elapsedNanos, Throwable e) {
+        if (isIgnored(e)) {
+            // 요청 자체의 문제나 우리 쪽 실행기 포화 → 집계하지 않고 HALF_OPEN 시험 자리만 돌려준다
+            if (state == State.HALF_OPEN) halfOpenPermits++;
+            return;
+        }
+        record(true, elapsedNanos >= slowCallNanos);
+    }
+
+    public synchronized State state() {
+        return state;
+    }
+
+    public boolean isOpen() {
+        return state() == State.OPEN;
+    }
+
+    private void record(boolean isFailure, boolean isSlow) {
+        if (state == State.HALF_OPEN) {
+            if (isFailure || isSlow) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        if (state == State.OPEN) return; // OPEN 직전에 나갔던 호출의 늦은 결과
+
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        next = (next + 1) % windowSize;
+        if (recorded < windowSize) recorded++;
+        if (recorded < minCalls) return;
+
+        int failures = 0, slows = 0;
+        for (int i = 0; i < recorded; i++) {
+            if (failed[i]) failures++;
+            if (slow[i]) slows++;
+        }
+        if ((double) failures / recorded >= failureRateThreshold
+                || (double) slows / recorded >= slowRateThreshold) {
+            log.warn("LLM circuit opened: failures={}/{}, slow={}/{}", failures, recorded, slows, recorded);
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private void transitionTo(State to) {
+        state = to;
+        transitions.get(to).increment();
+        switch (to) {
+            case OPEN -> openedAt = System.nanoTime();
+            case HALF_OPEN -> {
+                halfOpenPermits = halfOpenCalls;
+                halfOpenSucceeded = 0;
+            }
+            case CLOSED -> {
+                recorded = 0;
+                next = 0;
+            }
+        }
+    }
+
+    private static boolean isIgnored(Throwable e) {
+        if (e instanceof GeneralException ge) {
+            return ge.getCode() == ErrorStatus.LLM_BUSY;
+        }
+        if (e instanceof OpenAIServiceException se) {
+            int status = se.statusCode();
+            return status >= 400 && status < 500 && status != 429;
+        }
+        return false;
+    }
+}
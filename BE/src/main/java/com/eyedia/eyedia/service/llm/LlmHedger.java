@@ -0,0 +1,187 @@
+package com.eyedia.eyedia.service.llm;
+
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * 비스트리밍 LLM 호출에 전체 타임아웃과 헤지(hedged request)를 건다.
+ * 첫 시도가 최근 p95 지연을 넘기도록 안 끝나면 같은 요청을 한 번 더 보내고 먼저 성공한 쪽을 쓴다.
+ * callTimeoutMs 안에 둘 다 못 끝내면 LLM504 로 끊어서, 공급자 장애 때도 요청이 1분씩 붙잡히지 않게 한다.
+ */
+@Component
+public class LlmHedger {
+
+    private static final int SAMPLE_SIZE = 256;
+    private static final int MIN_SAMPLES = 20;
+
+    private final ThreadPoolTaskExecutor executor;
+    private final LlmBulkhead bulkhead;
+    private final boolean hedgeEnabled;
+    private final long initialDelayMs;
+    private final long minDelayMs;
+    private final long callTimeoutMs;
+
+    // 최근 성공 지연(ms) 원형 버퍼 → p95 계산용
+    private final long[] latencies = new long[SAMPLE_SIZE];
+    private int samples;
+    private int next;
+
+    private final Counter hedged;
+    private final Counter hedgeWins;
+    private final Counter hedgeSkipped;
+    private final Counter timeouts;
+
+    public LlmHedger(@Qualifier("llmCallExecutor") ThreadPoolTaskExecutor executor,
+                     LlmBulkhead bulkhead,
+                     @Value("${eyedia.llm.hedge.enabled:true}") boolean hedgeEnabled,
+                     @Value("${eyedia.llm.hedge.initialDelayMs:5000}") long initialDelayMs,
+                     @Value("${eyedia.llm.hedge.minDelayMs:1000}") long minDelayMs,
+                     @Value("${eyedia.llm.callTimeoutMs:25000}") long callTimeoutMs,
+                     MeterRegistry meterRegistry) {
+        this.executor = executor;
+        this.bulkhead = bulkhead;
+        this.hedgeEnabled = hedgeEnabled;
+        this.initialDelayMs = initialDelayMs;
+        this.minDelayMs = minDelayMs;
+        this.callTimeoutMs = callTimeoutMs;
+
+        this.hedged = meterRegistry.counter("eyedia.llm.hedge.requests", "result", "sent");
+        this.hedgeWins = meterRegistry.counter("eyedia.llm.hedge.requests", "result", "won");
+        this.hedgeSkipped = meterRegistry.counter("eyedia.llm.hedge.requests", "result", "skipped");
+        this.timeouts = meterRegistry.counter("eyedia.llm.call.timeouts");
+        Gauge.builder("eyedia.llm.hedge.delay", this, LlmHedger::hedgeDelayMs)
+                .baseUnit("milliseconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * primaryPermit: 호출자가 LlmBulkhead 에서 받은 자리. 첫 시도를 실행기에 넘기면 그 시도가 끝날 때 반납한다.
+     * 헤지는 남는 자리가 있을 때만 따로 받아서 보낸다 (헤지도 동시 호출 수에 포함).
+     * 타임아웃/패배한 시도는 Future.cancel(true) 로 실행 스레드를 인터럽트해서 OpenAI 호출을 끊는다.
+     */
+    public <T> T call(LlmBulkhead.Permit primaryPermit, Supplier<T> attempt) {
+        long startedAt = System.nanoTime();
+        long deadline = startedAt + TimeUnit.MILLISECONDS.toNanos(callTimeoutMs);
+
+        Attempt<T> primary = submit(primaryPermit, attempt);
+        if (primary == null) throw new GeneralException(ErrorStatus.LLM_BUSY);
+        Attempt<T> hedge = null;
+        try {
+            CompletableFuture<T> winner = primary.result;
+            if (hedgeEnabled) {
+                try {
+                    T value = primary.result.get(Math.min(hedgeDelayMs(), callTimeoutMs), TimeUnit.MILLISECONDS);
+                    recordLatency(startedAt);
+                    return value;
+                } catch (TimeoutException slow) {
+                    // 벌크헤드나 실행기에 남는 자리가 없으면 헤지 없이 첫 시도만 기다린다
+                    LlmBulkhead.Permit hedgePermit = bulkhead.tryAcquire();
+                    if (hedgePermit != null) {
+                        hedge = submit(hedgePermit, attempt);
+                        if (hedge == null) hedgePermit.release();
+                    }
+                    if (hedge != null) {
+                        hedged.increment();
+                        winner = firstSuccess(primary.result, hedge.result);
+                    } else {
+                        hedgeSkipped.increment();
+                    }
+                }
+            }
+
+            T value = winner.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+            recordLatency(startedAt);
+            return value;
+        } catch (TimeoutException e) {
+            timeouts.increment();
+            throw new GeneralException(ErrorStatus.LLM_TIMEOUT);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error err) throw err;
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GeneralException(ErrorStatus.LLM_BUSY);
+        } finally {
+            primary.cancel();
+            if (hedge != null) hedge.cancel();
+        }
+    }
+
+    // 실행기에 넘기면 permit 반납은 그 작업(또는 시작 전 취소)이 맡는다. 실행기가 꽉 차면 null (permit 은 호출자 소유로 남음)
+    private <T> Attempt<T> submit(LlmBulkhead.Permit permit, Supplier<T> attempt) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        AtomicBoolean started = new AtomicBoolean();
+        try {
+            Future<?> task = executor.submit(() -> {
+                if (!started.compareAndSet(false, true)) return;   // 시작 전에 취소됨
+                try {
+                    result.complete(attempt.get());
+                } catch (Throwable e) {
+                    result.completeExceptionally(e);
+                } finally {
+                    permit.release();
+                }
+            });
+            permit.handOff();
+            return new Attempt<>(result, task, started, permit);
+        } catch (TaskRejectedException e) {
+            return null;
+        }
+    }
+
+    private record Attempt<T>(CompletableFuture<T> result, Future<?> task, AtomicBoolean started,
+                              LlmBulkhead.Permit permit) {
+
+        // 실행 중이면 인터럽트 (반납은 작업의 finally), 아직 시작 전이면 여기서 반납
+        void cancel() {
+            task.cancel(true);
+            if (started.compareAndSet(false, true)) permit.release();
+        }
+    }
+
+    // 둘 중 먼저 성공한 결과, 둘 다 실패하면 나중 실패로 완료
+    private <T> CompletableFuture<T> firstSuccess(CompletableFuture<T> primary, CompletableFuture<T> hedge) {
+        CompletableFuture<T> first = new CompletableFuture<>();
+        AtomicInteger failures = new AtomicInteger();
+        for (CompletableFuture<T> f : List.of(primary, hedge)) {
+            f.whenComplete((value, error) -> {
+                if (error == null) {
+                    if (first.complete(value) && f == hedge) hedgeWins.increment();
+                } else if (failures.incrementAndGet() == 2) {
+                    first.completeExceptionally(error instanceof CompletionException ? error.getCause() : error);
+                }
+            });
+        }
+        return first;
+    }
+
+    public synchronized long hedgeDelayMs() {
+        if (samples < MIN_SAMPLES) return initialDelayMs;
+        long[] sorted = Arrays.copyOf(latencies, samples);
+        Arrays.sort(sorted);
+        long p95 = sorted[(int) Math.ceil(samples * 0.95) - 1];
+        return Math.max(minDelayMs, p95);
+    }
+
+    private synchronized void recordLatency(long startedAt) {
+        latencies[next] = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startedAt);
+        next = (next + 1) % SAMPLE_SIZE;
+        if (samples < SAMPLE_SIZE) samples++;
+    }
+}
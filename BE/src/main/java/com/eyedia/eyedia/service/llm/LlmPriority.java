@@ -0,0 +1,9 @@
+package com.eyedia.eyedia.service.llm;
+
+/**
+ * LLM 호출 우선순위. 벌크헤드 대기열에서 INTERACTIVE 가 항상 먼저 빠진다.
+ */
+public enum LlmPriority {
+    INTERACTIVE,   // /chats/ask 등 사용자가 화면 앞에서 기다리는 요청
+    BACKGROUND     // detect-area 시선 설명, 사전 생성 작업 등
+}
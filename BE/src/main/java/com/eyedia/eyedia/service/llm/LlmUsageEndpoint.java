@@ -0,0 +1,32 @@
+package com.eyedia.eyedia.service.llm;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * GET /actuator/llmusage?limit=20 : 프롬프트 종류별 + 토큰 상위 작품 집계
+ * GET /actuator/llmusage/{paintingId} : 작품 한 개 집계
+ */
+@Component
+@Endpoint(id = "llmusage")
+@RequiredArgsConstructor
+public class LlmUsageEndpoint {
+
+    private final LlmUsageRecorder recorder;
+
+    @ReadOperation
+    public Map<String, Object> usage(@Nullable Integer limit) {
+        return recorder.snapshot(limit == null ? 20 : limit);
+    }
+
+    @ReadOperation
+    public UsageStats.Snapshot painting(@Selector Long paintingId) {
+        return recorder.paintingSnapshot(paintingId).orElse(null);
+    }
+}
@@ -0,0 +1,119 @@
+package com.eyedia.eyedia.service.llm;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * OpenAI 호출 1건마다 토큰(input/output/cached)·모델·소요 시간을 기록한다.
+ * Micrometer 에는 프롬프트 종류/모델 태그로만 올리고(카디널리티 고정),
+ * 작품별 집계는 메모리에 maxPaintings 개까지 LRU 로 들고 있다가 /actuator/llmusage 로 보여준다.
+ */
+@Component
+public class LlmUsageRecorder {
+
+    private final MeterRegistry meterRegistry;
+    private final int maxPaintings;
+
+    private final ConcurrentMap<PromptType, UsageStats> byPromptType = new ConcurrentHashMap<>();
+    private final LinkedHashMap<Long, UsageStats> byPainting = new LinkedHashMap<>(16, 0.75f, true);
+
+    public LlmUsageRecorder(MeterRegistry meterRegistry,
+                            @Value("${eyedia.llm.usage.maxPaintings:500}") int maxPaintings) {
+        this.meterRegistry = meterRegistry;
+        this.maxPaintings = maxPaintings;
+    }
+
+    public void record(PromptType type, Long paintingId, String model,
+                       long inputTokens, long outputTokens, long cachedTokens, long wallNanos) {
+        String prompt = type.name();
+        Timer.builder("eyedia.llm.call.duration")
+                .tags("prompt", prompt, "model", model, "result", "success")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(wallNanos, TimeUnit.NANOSECONDS);
+        tokens(prompt, model, "input").record(inputTokens);
+        tokens(prompt, model, "output").record(outputTokens);
+        tokens(prompt, model, "cached").record(cachedTokens);
+
+        long wallMs = TimeUnit.NANOSECONDS.toMillis(wallNanos);
+        statsOf(type).record(inputTokens, outputTokens, cachedTokens, wallMs);
+        if (paintingId != null) {
+            paintingStatsOf(paintingId).record(inputTokens, outputTokens, cachedTokens, wallMs);
+        }
+    }
+
+    public void recordFailure(PromptType type, Long paintingId, String model, long wallNanos) {
+        Timer.builder("eyedia.llm.call.duration")
+                .tags("prompt", type.name(), "model", model, "result", "failure")
+                .register(meterRegistry)
+                .record(wallNanos, TimeUnit.NANOSECONDS);
+
+        statsOf(type).recordFailure();
+        if (paintingId != null) {
+            paintingStatsOf(paintingId).recordFailure();
+        }
+    }
+
+    /** 프롬프트 종류별 집계 + 토큰을 많이 쓴 작품 상위 limit 개 */
+    public Map<String, Object> snapshot(int limit) {
+        Map<String, Object> promptTypes = new LinkedHashMap<>();
+        for (PromptType type : PromptType.values()) {
+            UsageStats stats = byPromptType.get(type);
+            if (stats != null) promptTypes.put(type.name(), stats.snapshot());
+        }
+
+        List<Map.Entry<Long, UsageStats>> paintings;
+        synchronized (byPainting) {
+            paintings = new ArrayList<>(byPainting.entrySet());
+        }
+        Map<String, Object> topPaintings = new LinkedHashMap<>();
+        paintings.stream()
+                .map(e -> Map.entry(e.getKey(), e.getValue().snapshot()))
+                .sorted(Comparator.comparingLong((Map.Entry<Long, UsageStats.Snapshot> e) -> e.getValue().totalTokens()).reversed())
+                .limit(limit)
+                .forEach(e -> topPaintings.put(String.valueOf(e.getKey()), e.getValue()));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("byPromptType", promptTypes);
+        result.put("trackedPaintings", paintings.size());
+        result.put("topPaintingsByTokens", topPaintings);
+        return result;
+    }
+
+    public Optional<UsageStats.Snapshot> paintingSnapshot(Long paintingId) {
+        synchronized (byPainting) {
+            return Optional.ofNullable(byPainting.get(paintingId)).map(UsageStats::snapshot);
+        }
+    }
+
+    private DistributionSummary tokens(String prompt, String model, String kind) {
+        return DistributionSummary.builder("eyedia.llm.tokens")
+                .tags("prompt", prompt, "model", model, "kind", kind)
+                .baseUnit("tokens")
+                .register(meterRegistry);
+    }
+
+    private UsageStats statsOf(PromptType type) {
+        return byPromptType.computeIfAbsent(type, t -> new UsageStats());
+    }
+
+    private UsageStats paintingStatsOf(Long paintingId) {
+        synchronized (byPainting) {
+            UsageStats stats = byPainting.computeIfAbsent(paintingId, id -> new UsageStats());
+            Iterator<Long> eldest = byPainting.keySet().iterator();
+            while (byPainting.size() > maxPaintings && eldest.hasNext()) {
+                eldest.next();
+                eldest.remove();
+            }
+            return stats;
+        }
+    }
+}
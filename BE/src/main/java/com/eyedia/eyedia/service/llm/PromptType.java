@@ -0,0 +1,11 @@
+package com.eyedia.eyedia.service.llm;
+
+/**
+ * 프롬프트 종류 (사용량 집계 단위)
+ */
+public enum PromptType {
+    DOCENT,         // /chats/ask, /chats/ask/stream
+    PREGENERATION,  // 작품 등록 시 기본 설명
+    GAZE_AREA,      // detect-area 객체 설명
+    SUMMARY         // 대화 롤링 요약
+}
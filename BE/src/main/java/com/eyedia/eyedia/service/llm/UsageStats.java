@@ -0,0 +1,70 @@
+package com.eyedia.eyedia.service.llm;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * 호출 수·토큰 합계와 지연/출력 토큰 히스토그램 (고정 버킷).
+ * 버킷 상한은 "이하" 기준이고 마지막 버킷은 그 이상 전부.
+ */
+public class UsageStats {
+
+    private static final long[] WALL_MS_BOUNDS = {250, 500, 1000, 2000, 4000, 8000, 16000, 32000};
+    private static final long[] OUTPUT_TOKEN_BOUNDS = {50, 100, 200, 400, 800, 1600};
+
+    private long calls;
+    private long failures;
+    private long inputTokens;
+    private long outputTokens;
+    private long cachedTokens;
+    private long wallMsTotal;
+    private long wallMsMax;
+    private final long[] wallMsBuckets = new long[WALL_MS_BOUNDS.length + 1];
+    private final long[] outputTokenBuckets = new long[OUTPUT_TOKEN_BOUNDS.length + 1];
+
+    synchronized void record(long input, long output, long cached, long wallMs) {
+        calls++;
+        inputTokens += input;
+        outputTokens += output;
+        cachedTokens += cached;
+        wallMsTotal += wallMs;
+        wallMsMax = Math.max(wallMsMax, wallMs);
+        wallMsBuckets[bucket(WALL_MS_BOUNDS, wallMs)]++;
+        outputTokenBuckets[bucket(OUTPUT_TOKEN_BOUNDS, output)]++;
+    }
+
+    synchronized void recordFailure() {
+        failures++;
+    }
+
+    synchronized Snapshot snapshot() {
+        return new Snapshot(
+                calls, failures,
+                inputTokens, outputTokens, cachedTokens, inputTokens + outputTokens,
+                calls == 0 ? 0 : wallMsTotal / calls, wallMsMax,
+                histogram(WALL_MS_BOUNDS, wallMsBuckets, "ms"),
+                histogram(OUTPUT_TOKEN_BOUNDS, outputTokenBuckets, ""));
+    }
+
+    private static int bucket(long[] bounds, long value) {
+        for (int i = 0; i < bounds.length; i++) {
+            if (value <= bounds[i]) return i;
+        }
+        return bounds.length;
+    }
+
+    private static Map<String, Long> histogram(long[] bounds, long[] counts, String unit) {
+        Map<String, Long> h = new LinkedHashMap<>();
+        for (int i = 0; i < bounds.length; i++) {
+            h.put("le" + bounds[i] + unit, counts[i]);
+        }
+        h.put("gt" + bounds[bounds.length - 1] + unit, counts[bounds.length]);
+        return h;
+    }
+
+    public record Snapshot(long calls, long failures,
+                           long inputTokens, long outputTokens, long cachedTokens, long totalTokens,
+                           long avgWallMs, long maxWallMs,
+                           Map<String, Long> wallMsHistogram,
+                           Map<String, Long> outputTokenHistogram) {}
+}
@@ -0,0 +1,94 @@
+package com.eyedia.eyedia.service.storage;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * storageBaseDir 아래에 키 경로 그대로 저장 (storageBaseDir/tts/ab/cd/<hash>.mp3).
+ * 임시 파일은 같은 파일시스템의 .staging 에 만들어서 put 이 rename 한 번으로 끝난다.
+ */
+@Component
+@ConditionalOnProperty(name = "eyedia.media.storage", havingValue = "local", matchIfMissing = true)
+public class LocalMediaStorage implements MediaStorage {
+
+    private final Path root;
+    private final Path staging;
+    private final String cdnBaseUrl;
+
+    public LocalMediaStorage(@Value("${eyedia.tts.storageBaseDir:/var/eyedia/cdn/tts}") String storageBaseDir,
+                             @Value("${eyedia.tts.cdnBaseUrl:http://localhost:8080}") String cdnBaseUrl) {
+        this.root = Paths.get(storageBaseDir).toAbsolutePath().normalize();
+        this.staging = root.resolve(".staging");
+        this.cdnBaseUrl = cdnBaseUrl;
+    }
+
+    @Override
+    public Path createTempFile(String prefix) throws IOException {
+        Files.createDirectories(staging);
+        return Files.createTempFile(staging, prefix, ".part");
+    }
+
+    @Override
+    public long put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        long size = Files.size(source);
+        // 읽는 쪽은 항상 완성된 파일만 보게 된다
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return size;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    @Override
+    public String urlOf(String key) {
+        return cdnBaseUrl + "/" + key;
+    }
+
+    @Override
+    public void list(String prefix, Consumer<StoredMedia> consumer) throws IOException {
+        Path dir = resolve(prefix);
+        if (!Files.isDirectory(dir)) return;
+        try (Stream<Path> files = Files.walk(dir)) {
+            for (Path f : (Iterable<Path>) files::iterator) {
+                BasicFileAttributes attrs = Files.readAttributes(f, BasicFileAttributes.class);
+                if (!attrs.isRegularFile()) continue;
+                String key = root.relativize(f).toString().replace(f.getFileSystem().getSeparator(), "/");
+                consumer.accept(new StoredMedia(key, attrs.size(), attrs.lastModifiedTime().toMillis()));
+            }
+        }
+    }
+
+    // 키에 ".." 등을 넣어 root 밖으로 나가지 못하게 막는다
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Media key outside storage root: " + key);
+        }
+        return path;
+    }
+}
@@ -0,0 +1,37 @@
+package com.eyedia.eyedia.service.storage;
+
+import java.util.regex.Pattern;
+
+/**
+ * 해시 앞 4글자로 두 단계 하위 폴더를 만드는 키 규칙: tts/ab/cd/abcd....mp3
+ * 폴더 하나에 파일이 수십만 개씩 쌓이지 않도록 65536 개 폴더로 나눈다.
+ */
+public final class MediaKeys {
+
+    private static final Pattern HASH = Pattern.compile("[0-9a-f]{64}");
+
+    private MediaKeys() {
+    }
+
+    public static String sharded(String namespace, String hash, String ext) {
+        if (!HASH.matcher(hash).matches()) {
+            throw new IllegalArgumentException("Not a sha256 hex: " + hash);
+        }
+        return namespace + "/" + hash.substring(0, 2) + "/" + hash.substring(2, 4) + "/" + hash + "." + ext;
+    }
+
+    /** sharded 규칙으로 만든 키인지 (namespace/ab/cd/<hash>.ext) */
+    public static boolean isSharded(String key, String namespace, String ext) {
+        String prefix = namespace + "/";
+        String suffix = "." + ext;
+        if (!key.startsWith(prefix) || !key.endsWith(suffix)) return false;
+        String name = key.substring(key.lastIndexOf('/') + 1, key.length() - suffix.length());
+        return HASH.matcher(name).matches() && key.equals(sharded(namespace, name, ext));
+    }
+
+    public static String hashOf(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int dot = name.lastIndexOf('.');
+        return dot < 0 ? name : name.substring(0, dot);
+    }
+}
@@ -0,0 +1,35 @@
+package com.eyedia.eyedia.service.storage;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 내용 해시로 이름 붙인 생성 미디어(TTS mp3 등) 저장소.
+ * 키는 MediaKeys.sharded 로 만든 "tts/ab/cd/abcd....mp3" 형태이고, 한 번 쓴 키의 내용은 바뀌지 않는다.
+ * 기본은 로컬 디스크(LocalMediaStorage), eyedia.media.storage=s3 이면 S3(S3MediaStorage).
+ */
+public interface MediaStorage {
+
+    /** 다운로드 등을 받아 둘 임시 파일. 다 쓴 뒤 put 으로 넘긴다 */
+    Path createTempFile(String prefix) throws IOException;
+
+    /** 완성된 파일을 key 로 저장 (source 는 옮겨지거나 지워진다). 저장된 크기 반환 */
+    long put(String key, Path source) throws IOException;
+
+    boolean exists(String key);
+
+    void delete(String key) throws IOException;
+
+    /** 로컬 디스크에 있으면 그 경로 (직접 서빙용). S3 는 항상 empty */
+    Optional<Path> localPath(String key);
+
+    /** 클라이언트에 내려줄 URL */
+    String urlOf(String key);
+
+    /** prefix 아래 저장된 파일 전체 */
+    void list(String prefix, Consumer<StoredMedia> consumer) throws IOException;
+
+    record StoredMedia(String key, long size, long modifiedAt) {}
+}
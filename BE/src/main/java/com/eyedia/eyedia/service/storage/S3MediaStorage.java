@@ -0,0 +1,83 @@
+package com.eyedia.eyedia.service.storage;
+
+import com.eyedia.eyedia.config.s3.S3Manager;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * S3 버킷에 같은 키로 저장 (eyedia.media.storage=s3).
+ * 임시 파일만 로컬 storageBaseDir/.staging 에 받고, put 에서 업로드한 뒤 지운다.
+ * 내용이 바뀌지 않는 키라서 객체에 immutable 캐시 헤더를 붙이고, 클라이언트는 S3 URL 로 바로 받는다.
+ */
+@Component
+@ConditionalOnProperty(name = "eyedia.media.storage", havingValue = "s3")
+public class S3MediaStorage implements MediaStorage {
+
+    private static final String CACHE_CONTROL = "public, max-age=31536000, immutable";
+
+    private final S3Manager s3Manager;
+    private final Path staging;
+
+    public S3MediaStorage(S3Manager s3Manager,
+                          @Value("${eyedia.tts.storageBaseDir:/var/eyedia/cdn/tts}") String storageBaseDir) {
+        this.s3Manager = s3Manager;
+        this.staging = Paths.get(storageBaseDir, ".staging");
+    }
+
+    @Override
+    public Path createTempFile(String prefix) throws IOException {
+        Files.createDirectories(staging);
+        return Files.createTempFile(staging, prefix, ".part");
+    }
+
+    @Override
+    public long put(String key, Path source) throws IOException {
+        try {
+            long size = Files.size(source);
+            s3Manager.uploadFile(key, source.toFile(), contentTypeOf(key), CACHE_CONTROL);
+            return size;
+        } finally {
+            Files.deleteIfExists(source);
+        }
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return s3Manager.exists(key);
+    }
+
+    @Override
+    public void delete(String key) {
+        s3Manager.deleteFile(key);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    @Override
+    public String urlOf(String key) {
+        return s3Manager.getUrl(key);
+    }
+
+    @Override
+    public void list(String prefix, Consumer<StoredMedia> consumer) {
+        s3Manager.listFiles(prefix + "/", o ->
+                consumer.accept(new StoredMedia(o.getKey(), o.getSize(), o.getLastModified().getTime())));
+    }
+
+    private static String contentTypeOf(String key) {
+        if (key.endsWith(".mp3")) return "audio/mpeg";
+        if (key.endsWith(".jpg")) return "image/jpg";
+        return "application/octet-stream";
+    }
+}
@@ -0,0 +1,207 @@
+package com.eyedia.eyedia.service.tts;
+
+import com.eyedia.eyedia.domain.Painting;
+import com.eyedia.eyedia.global.error.exception.GeneralException;
+import com.eyedia.eyedia.global.error.status.ErrorStatus;
+import com.eyedia.eyedia.repository.PaintingRepository;
+import com.eyedia.eyedia.service.DocentPregenerationService;
+import com.eyedia.eyedia.service.TtsService;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 템플릿 작품(user null) 전체의 기본 설명과 미리 생성된 도슨트 설명을 TTS 로 미리 만들어 두는 배치.
+ * 이후 같은 텍스트 재생은 TTS 캐시 히트가 된다.
+ * - 동시에 parallelism 건만 합성 (대화형 TTS 용 ttsExecutor 와 분리된 실행기)
+ * - paintingId 순으로 batchSize 개씩 조회하고, 묶음마다 체크포인트 파일에 기록 → 재시작 시 그 다음부터 이어서 진행
+ * - 보이스는 지정하지 않아 대화 답변 음성과 같은 기본 보이스(eyedia.tts.defaultVoice) → 같은 문장이면 같은 캐시 파일
+ * - 진행률은 /api/v1/admin/audio-guides/prerender 와 eyedia.audio.guide.* 게이지로 확인
+ */
+@Slf4j
+@Service
+public class AudioGuidePrerenderService {
+
+    private final PaintingRepository paintingRepository;
+    private final DocentPregenerationService docentPregenerationService;
+    private final TtsService ttsService;
+    private final ThreadPoolTaskExecutor executor;
+
+    private final int parallelism;
+    private final int batchSize;
+    private final Path checkpointFile;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong processed = new AtomicLong();
+    private final AtomicLong clips = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile long startedAt;
+    private volatile long finishedAt;
+
+    public AudioGuidePrerenderService(PaintingRepository paintingRepository,
+                                      DocentPregenerationService docentPregenerationService,
+                                      TtsService ttsService,
+                                      @Qualifier("audioGuideExecutor") ThreadPoolTaskExecutor executor,
+                                      @Value("${eyedia.audioGuide.parallelism:2}") int parallelism,
+                                      @Value("${eyedia.audioGuide.batchSize:20}") int batchSize,
+                                      @Value("${eyedia.tts.storageBaseDir:/var/eyedia/cdn/tts}") String storageBaseDir,
+                                      MeterRegistry meterRegistry) {
+        this.paintingRepository = paintingRepository;
+        this.docentPregenerationService = docentPregenerationService;
+        this.ttsService = ttsService;
+        this.executor = executor;
+        this.parallelism = parallelism;
+        this.batchSize = batchSize;
+        this.checkpointFile = Paths.get(storageBaseDir, "audio-guide.checkpoint");
+
+        Gauge.builder("eyedia.audio.guide.paintings", total, AtomicLong::get).tag("state", "total").register(meterRegistry);
+        Gauge.builder("eyedia.audio.guide.paintings", processed, AtomicLong::get).tag("state", "processed").register(meterRegistry);
+        Gauge.builder("eyedia.audio.guide.clips", clips, AtomicLong::get).tag("result", "rendered").register(meterRegistry);
+        Gauge.builder("eyedia.audio.guide.clips", failed, AtomicLong::get).tag("result", "failed").register(meterRegistry);
+        Gauge.builder("eyedia.audio.guide.running", running, r -> r.get() ? 1 : 0).register(meterRegistry);
+    }
+
+    /** restart=true 면 체크포인트를 무시하고 처음부터 */
+    public Progress start(boolean restart) {
+        if (!running.compareAndSet(false, true)) {
+            return progress();
+        }
+        try {
+            executor.execute(() -> run(restart));
+        } catch (TaskRejectedException e) {
+            running.set(false);
+            throw new GeneralException(ErrorStatus.TTS_BUSY);
+        }
+        return progress();
+    }
+
+    public Progress progress() {
+        return new Progress(running.get(), total.get(), processed.get(), clips.get(), failed.get(),
+                readCheckpoint(), startedAt, finishedAt);
+    }
+
+    private void run(boolean restart) {
+        startedAt = System.currentTimeMillis();
+        finishedAt = 0;
+        processed.set(0);
+        clips.set(0);
+        failed.set(0);
+        try {
+            long checkpoint = restart ? 0 : readCheckpoint();
+            total.set(paintingRepository.countByUserIsNull());
+            processed.set(paintingRepository.countByUserIsNullAndPaintingIdLessThanEqual(checkpoint));
+            log.info("Audio guide prerender started: {} paintings, resuming after paintingId={}", total.get(), checkpoint);
+
+            Semaphore slots = new Semaphore(parallelism);
+            Pageable page = PageRequest.of(0, batchSize);
+            long lastId = checkpoint;
+            List<Painting> batch;
+            while (!(batch = paintingRepository
+                    .findByUserIsNullAndPaintingIdGreaterThanOrderByPaintingIdAsc(lastId, page)).isEmpty()) {
+                lastId = batch.get(batch.size() - 1).getPaintingId();
+
+                List<CompletableFuture<Void>> pending = new ArrayList<>();
+                for (Painting p : batch) {
+                    for (String text : textsOf(p)) {
+                        slots.acquire();
+                        try {
+                            pending.add(CompletableFuture
+                                    .runAsync(() -> render(text), executor)
+                                    .whenComplete((v, e) -> slots.release()));
+                        } catch (TaskRejectedException e) {
+                            // 방금 끝난 작업 스레드가 아직 반납되지 않은 순간이면 진행 스레드에서 직접 합성
+                            try {
+                                render(text);
+                            } finally {
+                                slots.release();
+                            }
+                        }
+                    }
+                }
+                CompletableFuture.allOf(pending.toArray(CompletableFuture[]::new)).join();
+                processed.addAndGet(batch.size());
+                // 묶음이 모두 끝난 뒤에만 기록 → 중간에 죽어도 이 묶음부터 다시 하면 된다
+                writeCheckpoint(lastId);
+            }
+            log.info("Audio guide prerender finished: clips={}, failed={}", clips.get(), failed.get());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Audio guide prerender interrupted at {}/{}", processed.get(), total.get());
+        } catch (Exception e) {
+            log.error("Audio guide prerender stopped at {}/{}", processed.get(), total.get(), e);
+        } finally {
+            finishedAt = System.currentTimeMillis();
+            running.set(false);
+        }
+    }
+
+    // 기본 설명 + (있으면) 미리 생성된 도슨트 설명
+    private List<String> textsOf(Painting p) {
+        List<String> texts = new ArrayList<>();
+        if (p.getDescription() != null && !p.getDescription().isBlank()) {
+            texts.add(p.getDescription());
+        }
+        docentPregenerationService.findFresh(p)
+                .map(d -> d.getContent())
+                .filter(text -> !text.isBlank())
+                .ifPresent(texts::add);
+        return texts;
+    }
+
+    private void render(String text) {
+        try {
+            String url = ttsService.synthesizeAndGetUrl(text, null);
+            if (ttsService.isFallback(url)) {
+                failed.incrementAndGet();
+                return;
+            }
+            clips.incrementAndGet();
+        } catch (Exception e) {
+            log.warn("Audio guide clip failed", e);
+            failed.incrementAndGet();
+        }
+    }
+
+    private long readCheckpoint() {
+        try {
+            if (!Files.exists(checkpointFile)) return 0;
+            return Long.parseLong(Files.readString(checkpointFile).trim());
+        } catch (IOException | NumberFormatException e) {
+            log.warn("Audio guide checkpoint unreadable, starting over: {}", checkpointFile, e);
+            return 0;
+        }
+    }
+
+    private void writeCheckpoint(long paintingId) throws IOException {
+        Files.createDirectories(checkpointFile.getParent());
+        Path tmp = checkpointFile.resolveSibling(checkpointFile.getFileName() + ".tmp");
+        Files.writeString(tmp, Long.toString(paintingId), StandardCharsets.UTF_8);
+        Files.move(tmp, checkpointFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /** checkpoint: 마지막으로 끝난 묶음의 paintingId (이 값 이하는 재시작 시 건너뜀) */
+    public record Progress(boolean running, long totalPaintings, long processedPaintings,
+                           long renderedClips, long failedClips, long checkpoint,
+                           long startedAt, long finishedAt) {}
+}
@@ -0,0 +1,87 @@
+package com.eyedia.eyedia.service.tts;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 스트리밍 텍스트 델타를 받아 TTS 로 보낼 문장 단위로 끊는다.
+ * 문장부호(. ? ! 。) 또는 줄바꿈 뒤에 공백이 오면 문장 끝으로 본다 ("3.5" 같은 소수점은 끊지 않음).
+ * 너무 짧은 문장은 다음 문장과 합치고, 끝이 안 나는 긴 문장은 쉼표/공백에서 자른다.
+ * 한 답변 전용 (스레드 안전하지 않음).
+ */
+public class SentenceSplitter {
+
+    private final int minChars;
+    private final int maxChars;
+    private final StringBuilder buffer = new StringBuilder();
+
+    public SentenceSplitter(int minChars, int maxChars) {
+        this.minChars = minChars;
+        this.maxChars = maxChars;
+    }
+
+    /** 델타를 붙이고, 완성된 문장(청크)들을 반환 */
+    public List<String> accept(String delta) {
+        buffer.append(delta);
+        List<String> chunks = new ArrayList<>();
+        int from = 0;
+        while (true) {
+            int end = sentenceEnd(from);
+            if (end < 0) break;
+            if (end - leadingSpaces() < minChars) {
+                // 짧으면 다음 문장과 합친다
+                from = end;
+                continue;
+            }
+            chunks.add(take(end));
+            from = 0;
+        }
+        while (buffer.length() > maxChars) {
+            chunks.add(take(softBreak()));
+        }
+        return chunks;
+    }
+
+    /** 답변이 끝났을 때 남은 텍스트 */
+    public String flush() {
+        String rest = buffer.toString().strip();
+        buffer.setLength(0);
+        return rest;
+    }
+
+    // from 이후 첫 문장 끝(문장부호 다음 위치), 없으면 -1
+    private int sentenceEnd(int from) {
+        for (int i = from; i < buffer.length() - 1; i++) {
+            char c = buffer.charAt(i);
+            boolean terminator = c == '.' || c == '?' || c == '!' || c == '。' || c == '\n';
+            if (terminator && Character.isWhitespace(buffer.charAt(i + 1))) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    // maxChars 안에서 마지막 쉼표/공백, 없으면 maxChars 에서 자른다
+    private int softBreak() {
+        for (int i = maxChars - 1; i > minChars; i--) {
+            char c = buffer.charAt(i);
+            if (c == ',' || c == '，') return i + 1;
+        }
+        for (int i = maxChars - 1; i > minChars; i--) {
+            if (Character.isWhitespace(buffer.charAt(i))) return i + 1;
+        }
+        return maxChars;
+    }
+
+    private int leadingSpaces() {
+        int n = 0;
+        while (n < buffer.length() && Character.isWhitespace(buffer.charAt(n))) n++;
+        return n;
+    }
+
+    private String take(int end) {
+        String chunk = buffer.substring(0, end).strip();
+        buffer.delete(0, end);
+        return chunk;
+    }
+}
@@ -0,0 +1,125 @@
+package com.eyedia.eyedia.service.tts;
+
+import com.eyedia.eyedia.service.TtsService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * LLM 답변이 생성되는 동안 문장 단위로 TTS 를 미리 돌린다.
+ * 문장마다 ttsExecutor 에서 병렬로 합성하지만, onReady 콜백은 항상 문장 순서대로(0,1,2..) 호출되므로
+ * 첫 문장 음성이 나오는 즉시 재생을 시작할 수 있다.
+ */
+@Component
+public class SentenceTtsPipeline {
+
+    private final TtsService ttsService;
+    private final ThreadPoolTaskExecutor executor;
+    private final int minChars;
+    private final int maxChars;
+
+    private final Counter chunks;
+    private final Counter inline;
+    private final Timer firstAudio;
+
+    public SentenceTtsPipeline(TtsService ttsService,
+                               @Qualifier("ttsExecutor") ThreadPoolTaskExecutor executor,
+                               @Value("${eyedia.tts.pipeline.minChars:15}") int minChars,
+                               @Value("${eyedia.tts.pipeline.maxChars:200}") int maxChars,
+                               MeterRegistry meterRegistry) {
+        this.ttsService = ttsService;
+        this.executor = executor;
+        this.minChars = minChars;
+        this.maxChars = maxChars;
+
+        this.chunks = meterRegistry.counter("eyedia.tts.pipeline.chunks");
+        this.inline = meterRegistry.counter("eyedia.tts.pipeline.inline");
+        this.firstAudio = meterRegistry.timer("eyedia.tts.pipeline.first.audio");
+    }
+
+    public Session open(String voice, Consumer<Chunk> onReady) {
+        return new Session(voice, onReady);
+    }
+
+    public record Chunk(int index, String text, String audioUrl) {}
+
+    /** 답변 하나 분량. accept 는 한 스레드에서만, onReady 는 합성 스레드에서 호출될 수 있다 */
+    public class Session {
+        private final String voice;
+        private final Consumer<Chunk> onReady;
+        private final SentenceSplitter splitter = new SentenceSplitter(minChars, maxChars);
+        private final List<CompletableFuture<Chunk>> futures = new ArrayList<>();
+        private final long openedAt = System.nanoTime();
+        private int nextToEmit;
+
+        private Session(String voice, Consumer<Chunk> onReady) {
+            this.voice = voice;
+            this.onReady = onReady;
+        }
+
+        public void accept(String delta) {
+            splitter.accept(delta).forEach(this::submit);
+        }
+
+        /** 남은 텍스트까지 합성하고, 모든 청크가 끝날 때까지 기다려 순서대로 된 재생 목록을 반환 */
+        public List<String> finish() {
+            String rest = splitter.flush();
+            if (!rest.isEmpty()) submit(rest);
+
+            List<CompletableFuture<Chunk>> all;
+            synchronized (this) {
+                all = List.copyOf(futures);
+            }
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).join();
+            return all.stream().map(f -> f.join().audioUrl()).toList();
+        }
+
+        private void submit(String text) {
+            int index;
+            synchronized (this) {
+                index = futures.size();
+            }
+            CompletableFuture<Chunk> future;
+            try {
+                future = CompletableFuture.supplyAsync(() -> synthesize(index, text), executor);
+            } catch (TaskRejectedException e) {
+                // 실행기가 꽉 차면 호출 스레드에서 바로 합성 (순서는 그대로 유지)
+                inline.increment();
+                future = CompletableFuture.completedFuture(synthesize(index, text));
+            }
+            synchronized (this) {
+                futures.add(future);
+            }
+            chunks.increment();
+            future.whenComplete((chunk, error) -> emitReady());
+        }
+
+        private Chunk synthesize(int index, String text) {
+            // TtsService 는 실패 시 대체 음성 URL 을 돌려주므로 예외 없이 항상 URL 이 나온다
+            return new Chunk(index, text, ttsService.synthesizeAndGetUrl(text, voice));
+        }
+
+        // 앞 청크가 모두 끝난 것만 순서대로 내보낸다
+        private synchronized void emitReady() {
+            while (nextToEmit < futures.size() && futures.get(nextToEmit).isDone()) {
+                Chunk chunk = futures.get(nextToEmit).join();
+                if (nextToEmit == 0) {
+                    firstAudio.record(System.nanoTime() - openedAt, TimeUnit.NANOSECONDS);
+                }
+                nextToEmit++;
+                onReady.accept(chunk);
+            }
+        }
+    }
+}
@@ -0,0 +1,210 @@
+package com.eyedia.eyedia.service.tts;
+
+import com.eyedia.eyedia.service.storage.MediaKeys;
+import com.eyedia.eyedia.service.storage.MediaStorage;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * TTS mp3 캐시 파일의 메모리 인덱스 (hash → 크기, 마지막 사용 순서).
+ * 시작 후 백그라운드에서 MediaStorage 의 tts/ 아래를 한 번 훑어 채우고, 이후 조회는 저장소를 보지 않는다.
+ * 스캔이 끝나기 전(또는 저장소 장애로 실패해 재시도하는 동안)에는 빈 인덱스로 동작한다 → 합성은 캐시 미스로 처리.
+ * 전체 크기가 maxBytes 를 넘으면 가장 오래 안 쓴 파일부터 지운다 (LRU). 삭제는 S3 면 왕복이 있으므로 잠금 밖에서 한다.
+ * 샤딩 키(tts/ab/cd/<sha256>.mp3)만 관리하므로 sample-fallback.mp3 같은 고정 파일은 건드리지 않는다.
+ */
+@Slf4j
+@Component
+public class TtsCacheIndex {
+
+    public static final String NAMESPACE = "tts";
+
+    private final MediaStorage storage;
+    private final TtsLayoutMigration migration;
+    private final long maxBytes;
+    private final long loadRetryMs;
+
+    private final LinkedHashMap<String, Long> sizes = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    // 인덱스에서 빼고 저장소에서 지우는 중인 hash. 그동안 같은 hash 가 다시 등록되면 resurrected 에 기록
+    private final Set<String> evicting = new HashSet<>();
+    private final Set<String> resurrected = new HashSet<>();
+    private volatile boolean loaded;
+    private Thread loader;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter evictions;
+
+    public TtsCacheIndex(MediaStorage storage,
+                         TtsLayoutMigration migration,
+                         @Value("${eyedia.tts.cache.maxBytes:2147483648}") long maxBytes,
+                         @Value("${eyedia.tts.cache.loadRetryMs:30000}") long loadRetryMs,
+                         MeterRegistry meterRegistry) {
+        this.storage = storage;
+        this.migration = migration;
+        this.maxBytes = maxBytes;
+        this.loadRetryMs = loadRetryMs;
+
+        this.hits = meterRegistry.counter("eyedia.tts.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("eyedia.tts.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("eyedia.tts.cache.evictions");
+        Gauge.builder("eyedia.tts.cache.bytes", this, TtsCacheIndex::totalBytes)
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("eyedia.tts.cache.entries", this, TtsCacheIndex::size)
+                .register(meterRegistry);
+        Gauge.builder("eyedia.tts.cache.loaded", this, i -> i.isLoaded() ? 1 : 0)
+                .register(meterRegistry);
+    }
+
+    /** 저장소 스캔은 시작을 막지 않도록 별도 스레드에서, 실패하면 loadRetryMs 마다 다시 시도 */
+    @PostConstruct
+    void startLoading() {
+        loader = new Thread(this::loadUntilDone, "tts-cache-load");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    @PreDestroy
+    void stopLoading() {
+        if (loader != null) loader.interrupt();
+    }
+
+    private void loadUntilDone() {
+        while (!loaded && !Thread.currentThread().isInterrupted()) {
+            try {
+                load();
+            } catch (Exception e) {
+                log.warn("TTS cache index load failed, retrying in {} ms", loadRetryMs, e);
+                try {
+                    Thread.sleep(loadRetryMs);
+                } catch (InterruptedException ie) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** 마지막 수정 시각 순으로 넣어서 재시작 후에도 대략적인 LRU 순서를 유지 */
+    public void load() throws IOException {
+        // 예전 평평한 배치에 남은 파일부터 샤딩 키로 옮긴 뒤 스캔
+        migration.migrateOnStartup();
+
+        List<Scanned> scanned = new ArrayList<>();
+        storage.list(NAMESPACE, m -> {
+            if (MediaKeys.isSharded(m.key(), NAMESPACE, "mp3")) {
+                scanned.add(new Scanned(MediaKeys.hashOf(m.key()), m.size(), m.modifiedAt()));
+            }
+        });
+        scanned.sort(Comparator.comparingLong(Scanned::modifiedAt));
+
+        List<Victim> victims;
+        synchronized (this) {
+            // 스캔하는 동안 새로 등록된 파일은 가장 최근 사용으로 뒤에 다시 넣는다
+            Map<String, Long> registered = new LinkedHashMap<>(sizes);
+            sizes.clear();
+            totalBytes = 0;
+            for (Scanned s : scanned) {
+                if (!evicting.contains(s.hash())) put(s.hash(), s.size());
+            }
+            registered.forEach(this::put);
+            victims = selectVictims(null);
+            loaded = true;
+        }
+        delete(victims);
+        log.info("TTS cache index loaded: {} files, {} bytes (max {})", size(), totalBytes(), maxBytes);
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** 캐시에 있으면 저장소 키 (최근 사용으로 갱신) */
+    public synchronized Optional<String> lookup(String hash) {
+        if (sizes.get(hash) == null) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(keyOf(hash));
+    }
+
+    /** 새로 저장한 파일 등록. 예산을 넘으면 방금 넣은 것 말고 오래된 것부터 지운다 */
+    public void register(String hash, long size) {
+        List<Victim> victims;
+        synchronized (this) {
+            put(hash, size);
+            if (evicting.contains(hash)) resurrected.add(hash);
+            victims = selectVictims(hash);
+        }
+        delete(victims);
+    }
+
+    public String keyOf(String hash) {
+        return MediaKeys.sharded(NAMESPACE, hash, "mp3");
+    }
+
+    public synchronized long totalBytes() {
+        return totalBytes;
+    }
+
+    public synchronized int size() {
+        return sizes.size();
+    }
+
+    private void put(String hash, long size) {
+        Long previous = sizes.put(hash, size);
+        totalBytes += size - (previous == null ? 0 : previous);
+    }
+
+    // 잠금 안에서: 예산을 넘는 만큼 오래된 것부터 인덱스에서 빼고 지울 목록으로 돌려준다
+    private List<Victim> selectVictims(String keep) {
+        List<Victim> victims = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> eldest = sizes.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> e = eldest.next();
+            if (e.getKey().equals(keep) || evicting.contains(e.getKey())) continue;
+            victims.add(new Victim(e.getKey(), e.getValue()));
+            evicting.add(e.getKey());
+            totalBytes -= e.getValue();
+            eldest.remove();
+        }
+        return victims;
+    }
+
+    // 잠금 밖에서 저장소 삭제
+    private void delete(List<Victim> victims) {
+        for (Victim v : victims) {
+            boolean deleted = false;
+            try {
+                storage.delete(keyOf(v.hash()));
+                deleted = true;
+                evictions.increment();
+            } catch (IOException | RuntimeException ex) {
+                // 인덱스에서는 이미 빠졌으므로 파일만 남는다. 다음 시작 때 스캔으로 다시 들어와 정리된다
+                log.warn("TTS cache eviction failed: {}", v.hash(), ex);
+            }
+            synchronized (this) {
+                evicting.remove(v.hash());
+                // 지우는 사이 같은 내용이 다시 저장·등록됐으면 그 파일이 지워졌을 수 있다 → 인덱스에서 빼서 다시 만들게 한다
+                if (resurrected.remove(v.hash()) && deleted) {
+                    Long size = sizes.remove(v.hash());
+                    if (size != null) totalBytes -= size;
+                }
+            }
+        }
+    }
+
+    private record Scanned(String hash, long size, long modifiedAt) {}
+
+    private record Victim(String hash, long size) {}
+}
@@ -0,0 +1,78 @@
+package com.eyedia.eyedia.service.tts;
+
+import com.eyedia.eyedia.service.storage.MediaKeys;
+import com.eyedia.eyedia.service.storage.MediaStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 예전 평평한 배치(storageBaseDir/tts/<hash>.mp3)의 파일을 MediaStorage 의 샤딩 키(tts/ab/cd/<hash>.mp3)로 옮긴다.
+ * 로컬 저장소면 rename, S3 면 업로드 후 로컬 파일 삭제. 이미 옮겨진 파일은 중복본만 지우므로 여러 번 돌려도 된다.
+ * TtsCacheIndex 가 시작 후 백그라운드에서 인덱스를 채우기 전에 호출한다 (eyedia.media.migrateOnStartup=false 로 끌 수 있음).
+ */
+@Slf4j
+@Component
+public class TtsLayoutMigration {
+
+    private static final Pattern FLAT_FILE = Pattern.compile("[0-9a-f]{64}\\.mp3");
+
+    private final MediaStorage storage;
+    private final Path flatDir;
+    private final boolean enabled;
+
+    public TtsLayoutMigration(MediaStorage storage,
+                              @Value("${eyedia.tts.storageBaseDir:/var/eyedia/cdn/tts}") String storageBaseDir,
+                              @Value("${eyedia.media.migrateOnStartup:true}") boolean enabled) {
+        this.storage = storage;
+        this.flatDir = Paths.get(storageBaseDir, TtsCacheIndex.NAMESPACE);
+        this.enabled = enabled;
+    }
+
+    public Result migrateOnStartup() throws IOException {
+        return enabled ? migrate() : new Result(0, 0, 0);
+    }
+
+    public Result migrate() throws IOException {
+        if (!Files.isDirectory(flatDir)) return new Result(0, 0, 0);
+
+        List<Path> flat;
+        try (Stream<Path> files = Files.list(flatDir)) {
+            flat = files.filter(Files::isRegularFile)
+                    .filter(f -> FLAT_FILE.matcher(f.getFileName().toString()).matches())
+                    .toList();
+        }
+        if (flat.isEmpty()) return new Result(0, 0, 0);
+
+        int moved = 0, duplicates = 0, failed = 0;
+        for (Path f : flat) {
+            String name = f.getFileName().toString();
+            String key = MediaKeys.sharded(TtsCacheIndex.NAMESPACE, name.substring(0, name.length() - ".mp3".length()), "mp3");
+            try {
+                if (storage.exists(key)) {
+                    Files.delete(f);
+                    duplicates++;
+                } else {
+                    storage.put(key, f);
+                    moved++;
+                }
+            } catch (IOException | RuntimeException e) {
+                // 남은 파일은 다음 시작 때 다시 시도
+                log.warn("TTS layout migration skipped {}", f, e);
+                failed++;
+            }
+        }
+        log.info("TTS layout migration: moved={}, duplicates={}, failed={}", moved, duplicates, failed);
+        return new Result(moved, duplicates, failed);
+    }
+
+    public record Result(int moved, int duplicates, int failed) {}
+}
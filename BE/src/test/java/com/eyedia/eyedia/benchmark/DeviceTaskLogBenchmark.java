@@ -0,0 +1,81 @@
+package com.eyedia.eyedia.benchmark;
+
+import com.eyedia.eyedia.dto.DeviceTask;
+import com.eyedia.eyedia.service.device.DeviceTaskLog;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * 젯슨 작업 로그 append/remove 처리량과 재시작 복구 시간 측정 (JUnit 테스트 아님, 수동 실행용).
+ * 여러 스레드가 PLAY_AUDIO 크기의 작업을 넣고 절반을 처리(remove)한 뒤, 로그를 닫고 다시 열어 남은 작업 수를 확인한다.
+ *
+ * 실행: ./gradlew testClasses && java -cp build/classes/java/test:build/classes/java/main:<런타임 클래스패스>
+ *       com.eyedia.eyedia.benchmark.DeviceTaskLogBenchmark [tasks] [threads] [devices]
+ */
+public class DeviceTaskLogBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int tasks = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        int devices = args.length > 2 ? Integer.parseInt(args[2]) : 500;
+
+        Path dir = Files.createTempDirectory("device-log-bench");
+        String text = "이 작품은 빛과 그림자의 대비로 인물의 감정을 드러냅니다. ".repeat(4);
+        try {
+            DeviceTaskLog taskLog = new DeviceTaskLog(dir.toString(), 64 * 1024 * 1024, 8, 20);
+            taskLog.recover();
+
+            System.out.printf("tasks=%d threads=%d devices=%d%n", tasks, threads, devices);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            long startedAt = System.nanoTime();
+            List<Future<?>> futures = new ArrayList<>();
+            int perThread = tasks / threads;
+            for (int t = 0; t < threads; t++) {
+                int offset = t * perThread;
+                futures.add(pool.submit(() -> {
+                    for (int i = 0; i < perThread; i++) {
+                        DeviceTask task = DeviceTask.builder()
+                                .taskId(UUID.randomUUID().toString())
+                                .type("PLAY_AUDIO")
+                                .audioUrl("https://cdn.eyedia.app/tts/ab/cd/" + "0".repeat(64) + ".mp3")
+                                .text(text)
+                                .createdAt(System.currentTimeMillis())
+                                .build();
+                        long id = taskLog.append("jetson-" + ((offset + i) % devices), task);
+                        if (i % 2 == 0) taskLog.remove(id);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            long elapsedNs = System.nanoTime() - startedAt;
+            pool.shutdown();
+
+            int appended = perThread * threads;
+            System.out.printf("append+remove %,d tasks in %d ms  → %,.0f enqueues/s  (segments=%d, live=%d)%n",
+                    appended, elapsedNs / 1_000_000, appended / (elapsedNs / 1e9),
+                    taskLog.segmentCount(), taskLog.liveCount());
+            int expectedLive = taskLog.liveCount();
+            taskLog.close();
+
+            long recoverStart = System.nanoTime();
+            DeviceTaskLog reopened = new DeviceTaskLog(dir.toString(), 64 * 1024 * 1024, 8, 20);
+            int recovered = reopened.recover().size();
+            System.out.printf("recovered %,d / %,d pending tasks in %d ms%n",
+                    recovered, expectedLive, (System.nanoTime() - recoverStart) / 1_000_000);
+            reopened.close();
+        } finally {
+            try (var files = Files.list(dir)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+}
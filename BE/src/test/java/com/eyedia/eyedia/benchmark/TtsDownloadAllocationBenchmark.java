@@ -0,0 +1,161 @@
+package com.eyedia.eyedia.benchmark;
+
+import com.sun.net.httpserver.HttpServer;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * TTS 다운로드 방식별 힙 할당량/GC 비교 (JUnit 테스트 아님, 수동 실행용).
+ * 로컬 HttpServer 가 가짜 mp3 를 내려주고, 같은 요청을 ofByteArray+Files.write / ofFile 로 받아 비교한다.
+ *
+ * 실행: ./gradlew testClasses && java -cp build/classes/java/test com.eyedia.eyedia.benchmark.TtsDownloadAllocationBenchmark [clipKb] [requests] [concurrency]
+ */
+public class TtsDownloadAllocationBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int clipKb = args.length > 0 ? Integer.parseInt(args[0]) : 2048;
+        int requests = args.length > 1 ? Integer.parseInt(args[1]) : 400;
+        int concurrency = args.length > 2 ? Integer.parseInt(args[2]) : 16;
+
+        byte[] clip = new byte[clipKb * 1024];
+        new Random(42).nextBytes(clip);
+
+        HttpServer server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 256);
+        server.setExecutor(Executors.newFixedThreadPool(concurrency));
+        server.createContext("/v1/audio/speech", ex -> {
+            try {
+                ex.getRequestBody().readAllBytes();
+                ex.getResponseHeaders().set("Content-Type", "audio/mpeg");
+                ex.sendResponseHeaders(200, clip.length);
+                ex.getResponseBody().write(clip);
+            } finally {
+                ex.close();
+            }
+        });
+        server.start();
+
+        URI uri = URI.create("http://127.0.0.1:" + server.getAddress().getPort() + "/v1/audio/speech");
+        Path dir = Files.createTempDirectory("tts-bench");
+        HttpClient http = HttpClient.newHttpClient();
+
+        try {
+            System.out.printf("clip=%dKB requests=%d concurrency=%d%n", clipKb, requests, concurrency);
+            // 워밍업 후 측정
+            run("ofByteArray", requests / 4, concurrency, () -> byteArray(http, uri, dir));
+            run("ofFile", requests / 4, concurrency, () -> streamToFile(http, uri, dir));
+            report(run("ofByteArray", requests, concurrency, () -> byteArray(http, uri, dir)));
+            report(run("ofFile", requests, concurrency, () -> streamToFile(http, uri, dir)));
+        } finally {
+            server.stop(0);
+            ((ExecutorService) server.getExecutor()).shutdownNow();
+            try (var files = Files.list(dir)) {
+                files.forEach(f -> f.toFile().delete());
+            }
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    // 기존 방식: 본문 전체를 byte[] 로 받은 뒤 파일에 쓴다
+    private static void byteArray(HttpClient http, URI uri, Path dir) throws Exception {
+        HttpResponse<byte[]> resp = http.send(request(uri), HttpResponse.BodyHandlers.ofByteArray());
+        Path tmp = Files.createTempFile(dir, "clip", ".part");
+        Files.write(tmp, resp.body());
+        Files.delete(tmp);
+    }
+
+    // 변경 방식: 본문을 임시 파일로 바로 흘려 쓴다
+    private static void streamToFile(HttpClient http, URI uri, Path dir) throws Exception {
+        Path tmp = Files.createTempFile(dir, "clip", ".part");
+        http.send(request(uri), HttpResponse.BodyHandlers.ofFile(tmp));
+        Files.delete(tmp);
+    }
+
+    private static HttpRequest request(URI uri) {
+        return HttpRequest.newBuilder(uri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString("{\"input\":\"benchmark\"}"))
+                .build();
+    }
+
+    private static Result run(String name, int requests, int concurrency, Download download) throws Exception {
+        System.gc();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        Map<Long, Long> allocatedBefore = allocatedByThread();
+
+        ExecutorService pool = Executors.newFixedThreadPool(concurrency);
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < requests; i++) {
+                futures.add(pool.submit(() -> {
+                    download.run();
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) f.get();
+            long elapsedMs = (System.nanoTime() - startedAt) / 1_000_000;
+
+            // 본문 byte[] 는 HttpClient 내부 스레드에서 모이므로 호출 스레드만이 아니라 살아 있는 전체 스레드 할당량을 센다
+            long allocated = 0;
+            for (Map.Entry<Long, Long> e : allocatedByThread().entrySet()) {
+                allocated += e.getValue() - allocatedBefore.getOrDefault(e.getKey(), 0L);
+            }
+            return new Result(name, requests, elapsedMs, allocated,
+                    gcCount() - gcCountBefore, gcTime() - gcTimeBefore);
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    private static Map<Long, Long> allocatedByThread() {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long[] ids = threads.getAllThreadIds();
+        long[] bytes = threads.getThreadAllocatedBytes(ids);
+        Map<Long, Long> result = new HashMap<>();
+        for (int i = 0; i < ids.length; i++) {
+            if (bytes[i] >= 0) result.put(ids[i], bytes[i]);
+        }
+        return result;
+    }
+
+    private static void report(Result r) {
+        System.out.printf("%-12s %6d req %7d ms  alloc/req=%8.1f KB  gc=%d (%d ms)%n",
+                r.name(), r.requests(), r.elapsedMs(),
+                r.allocatedBytes() / 1024.0 / r.requests(), r.gcCount(), r.gcTimeMs());
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount).sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime).sum();
+    }
+
+    @FunctionalInterface
+    private interface Download {
+        void run() throws Exception;
+    }
+
+    private record Result(String name, int requests, long elapsedMs, long allocatedBytes,
+                          long gcCount, long gcTimeMs) {}
+}
@@ -0,0 +1,191 @@
+package com.eyedia.eyedia.service;
+
+import com.eyedia.eyedia.dto.DeviceTask;
+import com.eyedia.eyedia.service.device.DeviceTaskLog;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 젯슨 작업 큐의 임대/ack/재전달, 묶음 조회, 답변 단위 coalescing, TTL 검증.
+ * 실제 작업 로그(임시 디렉터리)와 짧은 임대/정리 주기로 돌린다.
+ */
+class DeviceTaskServiceTest {
+
+    private static final String DEVICE = "jetson-1";
+    private static final long LEASE_MS = 100;
+    private static final long SWEEP_MS = 20;
+
+    @TempDir
+    Path dir;
+
+    private DeviceTaskLog taskLog;
+    private ThreadPoolTaskExecutor sendExecutor;
+    private SimpleMeterRegistry registry;
+    private DeviceTaskService service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        taskLog = new DeviceTaskLog(dir.toString(), 64 * 1024, 4, 1000);
+        sendExecutor = new ThreadPoolTaskExecutor();
+        sendExecutor.setCorePoolSize(1);
+        sendExecutor.initialize();
+        registry = new SimpleMeterRegistry();
+        service = new DeviceTaskService(taskLog, sendExecutor,
+                60_000, 60_000,      // stream timeout, heartbeat
+                100, 100,            // capacity, maxQueues
+                600_000, SWEEP_MS,   // idleEvictMs, sweepMs
+                60_000,              // 기본 TTL
+                Set.of("PLAY_AUDIO"), registry);
+        service.recover();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+        sendExecutor.shutdown();
+        taskLog.close();
+    }
+
+    @Test
+    void leaseExpiryRedeliversTaskWithNextAttempt() throws InterruptedException {
+        service.enqueue(DEVICE, task("a"));
+
+        List<DeviceTask> first = fetch(10, LEASE_MS);
+        assertEquals(1, first.size());
+        assertEquals(1, first.get(0).getAttempt());
+        // 임대 중에는 다시 나가지 않는다
+        assertTrue(fetch(10, LEASE_MS).isEmpty());
+
+        Thread.sleep(LEASE_MS * 2);
+        List<DeviceTask> second = fetch(10, LEASE_MS);
+        assertEquals(1, second.size());
+        assertEquals(first.get(0).getSeq(), second.get(0).getSeq());
+        assertEquals(2, second.get(0).getAttempt());
+        assertEquals(1.0, registry.counter("eyedia.device.task.redelivered").count());
+
+        assertEquals(1, service.ackTasks(DEVICE, List.of(second.get(0).getSeq())));
+        assertEquals(0, taskLog.liveCount());
+    }
+
+    @Test
+    void lateAckRemovesTaskPutBackInQueue() throws InterruptedException {
+        service.enqueue(DEVICE, task("a"));
+        long seq = fetch(10, LEASE_MS).get(0).getSeq();
+
+        // 정리(sweep)가 임대 만료된 작업을 큐 앞에 되돌릴 때까지
+        await(() -> registry.counter("eyedia.device.task.redelivered").count() >= 1);
+
+        assertEquals(1, service.ackTasks(DEVICE, List.of(seq)));
+        assertTrue(fetch(10, LEASE_MS).isEmpty());
+        assertEquals(0, taskLog.liveCount());
+        // 같은 ack 가 한 번 더 와도 아무것도 지우지 않는다
+        assertEquals(0, service.ackTasks(DEVICE, List.of(seq)));
+    }
+
+    @Test
+    void newAnswerGroupDropsQueuedAudioOfEarlierAnswer() {
+        service.enqueuePlayAudio(DEVICE, "answer-1", url("1-1"), "1-1");
+        service.enqueuePlayAudio(DEVICE, "answer-1", url("1-2"), "1-2");
+        service.enqueuePlayAudio(DEVICE, null, url("notice"), "notice");
+        service.enqueuePlayAudio(DEVICE, "answer-2", url("2-1"), "2-1");
+        service.enqueuePlayAudio(DEVICE, "answer-2", url("2-2"), "2-2");
+
+        // 같은 답변의 문장들과 groupId 없는 작업은 순서대로 남는다
+        assertEquals(List.of("notice", "2-1", "2-2"), texts(fetch(10, 0)));
+        assertEquals(2.0, dropped("coalesced"));
+        assertEquals(0, taskLog.liveCount());
+    }
+
+    @Test
+    void expiredTasksAreNeverDelivered() throws InterruptedException {
+        long now = System.currentTimeMillis();
+        // 넣을 때 이미 만료 → 기록도 하지 않는다
+        service.enqueue(DEVICE, task("already-expired", now - 1));
+        // 임대 중에 만료 → 임대가 끝나도 다시 나가지 않는다
+        service.enqueue(DEVICE, task("leased", now + LEASE_MS + 50));
+        assertEquals(List.of("leased"), texts(fetch(10, LEASE_MS)));
+        // 큐에서 기다리다 만료
+        service.enqueue(DEVICE, task("queued", System.currentTimeMillis() + 50));
+
+        Thread.sleep(LEASE_MS * 3);
+
+        assertTrue(fetch(10, LEASE_MS).isEmpty());
+        assertEquals(3.0, dropped("expired"));
+        assertEquals(0, taskLog.liveCount());
+    }
+
+    @Test
+    void batchFetchReturnsUpToMaxInOrder() {
+        for (int i = 0; i < 5; i++) service.enqueue(DEVICE, task("t" + i));
+
+        List<DeviceTask> first = fetch(3, 60_000);
+        List<DeviceTask> second = fetch(3, 60_000);
+        assertEquals(List.of("t0", "t1", "t2"), texts(first));
+        assertEquals(List.of("t3", "t4"), texts(second));
+        assertTrue(first.get(2).getSeq() < second.get(0).getSeq());
+        assertTrue(fetch(3, 60_000).isEmpty());
+
+        List<Long> seqs = new ArrayList<>();
+        first.forEach(t -> seqs.add(t.getSeq()));
+        second.forEach(t -> seqs.add(t.getSeq()));
+        assertEquals(5, service.ackTasks(DEVICE, seqs));
+        assertEquals(0, taskLog.liveCount());
+    }
+
+    // 쌓인 작업만 바로 가져오고(없으면 빈 목록) 대기는 걸지 않는다
+    private List<DeviceTask> fetch(int max, long leaseMs) {
+        List<DeviceTask> got = new ArrayList<>();
+        DeviceTaskService.Waiter w = service.awaitTasks(DEVICE, max, 60_000, leaseMs, tasks -> {
+            got.addAll(tasks);
+            return true;
+        }, () -> {});
+        service.cancel(w);
+        return got;
+    }
+
+    private double dropped(String reason) {
+        return registry.counter("eyedia.device.tasks.dropped", "device", DEVICE, "reason", reason).count();
+    }
+
+    private static List<String> texts(List<DeviceTask> tasks) {
+        return tasks.stream().map(DeviceTask::getText).toList();
+    }
+
+    private static DeviceTask task(String text) {
+        return task(text, 0);
+    }
+
+    private static DeviceTask task(String text, long expiresAt) {
+        return DeviceTask.builder()
+                .taskId("task-" + text)
+                .type("PLAY_AUDIO")
+                .text(text)
+                .expiresAt(expiresAt)
+                .build();
+    }
+
+    private static String url(String text) {
+        return "https://cdn.eyedia.app/tts/" + text + ".mp3";
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 2_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met within 2s");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,256 @@
+package com.eyedia.eyedia.service.device;
+
+import com.eyedia.eyedia.dto.DeviceTask;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 젯슨 작업 로그의 디스크 형식 검증: 쓰다 만 꼬리/CRC 깨짐 복구, 세그먼트 옮겨 적기(compactHead), 옮겨 적는 도중 죽은 경우.
+ * 각 경우 다시 열어서 살아 있는 작업 집합과 다음 id 를 확인한다.
+ */
+class DeviceTaskLogTest {
+
+    // 작은 세그먼트로 roll/compaction 이 몇 건 만에 일어나게 한다 (작업 1건 ≈ 200 바이트)
+    private static final int SEGMENT_BYTES = 1024;
+    private static final int MAX_SEGMENTS = 2;
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void recoversLiveTasksInIdOrder() throws IOException {
+        DeviceTaskLog log = fresh();
+        long a = log.append("jetson-1", task("a"));
+        long b = log.append("jetson-2", task("b"));
+        long c = log.append("jetson-1", task("c"));
+        log.remove(b);
+        log.close();
+
+        DeviceTaskLog reopened = open();
+        Map<Long, DeviceTaskLog.Recovered> live = recover(reopened);
+        assertEquals(List.of(a, c), new ArrayList<>(live.keySet()));
+        assertEquals("jetson-1", live.get(a).deviceId());
+        assertEquals("a", live.get(a).task().getText());
+        assertEquals("group-a", live.get(a).task().getGroupId());
+        assertEquals(expiresAt("a"), live.get(a).task().getExpiresAt());
+        assertEquals(c + 1, reopened.append("jetson-1", task("d")));
+        reopened.close();
+    }
+
+    @Test
+    void tornTailIsDroppedAndOverwritten() throws IOException {
+        DeviceTaskLog log = fresh();
+        long a = log.append("jetson-1", task("a"));
+        long b = log.append("jetson-1", task("b"));
+        log.close();
+
+        // 마지막 레코드의 길이만 쓰이지 않은 상태 (길이를 마지막에 쓰므로 쓰다 죽으면 0)
+        Path segment = onlySegment();
+        int last = recordOffsets(segment).get(1);
+        writeInt(segment, last, 0);
+
+        DeviceTaskLog reopened = open();
+        assertEquals(List.of(a), new ArrayList<>(recover(reopened).keySet()));
+        // 깨진 레코드 id 는 기록된 적 없는 것으로 보고 다시 쓴다
+        assertEquals(b, reopened.append("jetson-1", task("b2")));
+        reopened.close();
+
+        DeviceTaskLog again = open();
+        Map<Long, DeviceTaskLog.Recovered> live = recover(again);
+        assertEquals(List.of(a, b), new ArrayList<>(live.keySet()));
+        assertEquals("b2", live.get(b).task().getText());
+        again.close();
+    }
+
+    @Test
+    void crcMismatchStopsReplayAndGarbageIsClearedBeforeNextAppend() throws IOException {
+        DeviceTaskLog log = fresh();
+        long a = log.append("jetson-1", task("a"));
+        long b = log.append("jetson-1", task("b"));
+        long c = log.append("jetson-1", task("c"));
+        log.close();
+
+        // 가운데 레코드 본문 한 바이트 손상 → 그 뒤(c 포함)는 믿을 수 없으므로 버린다
+        Path segment = onlySegment();
+        int middle = recordOffsets(segment).get(1);
+        flipByte(segment, middle + 8 + 3);
+
+        DeviceTaskLog reopened = open();
+        assertEquals(List.of(a), new ArrayList<>(recover(reopened).keySet()));
+        long d = reopened.append("jetson-1", task("d"));
+        assertEquals(b, d);
+        reopened.close();
+
+        // 새 레코드 뒤에 예전 c 레코드가 남아 있었다면 다시 읽혀 살아나면 안 된다
+        DeviceTaskLog again = open();
+        Map<Long, DeviceTaskLog.Recovered> live = recover(again);
+        assertEquals(List.of(a, d), new ArrayList<>(live.keySet()));
+        assertEquals("d", live.get(d).task().getText());
+        assertFalse(live.containsKey(c));
+        assertEquals(d + 1, again.append("jetson-1", task("e")));
+        again.close();
+    }
+
+    @Test
+    void compactionMovesStickyTasksAndReleasesOldSegments() throws IOException {
+        DeviceTaskLog log = fresh();
+        List<Long> sticky = new ArrayList<>();
+        for (int i = 0; i < 4; i++) sticky.add(log.append("jetson-1", task("sticky-" + i)));
+        long lastId = churn(log, 60);
+
+        assertTrue(log.segmentCount() <= MAX_SEGMENTS + 1, "segments=" + log.segmentCount());
+        assertEquals(sticky.size(), log.liveCount());
+        log.close();
+
+        DeviceTaskLog reopened = open();
+        Map<Long, DeviceTaskLog.Recovered> live = recover(reopened);
+        assertEquals(sticky, new ArrayList<>(live.keySet()));
+        for (int i = 0; i < sticky.size(); i++) {
+            DeviceTask t = live.get(sticky.get(i)).task();
+            assertEquals("sticky-" + i, t.getText());
+            assertEquals(sticky.get(i), t.getSeq());
+        }
+        assertEquals(sticky.size(), reopened.liveCount());
+        assertTrue(reopened.append("jetson-1", task("next")) > lastId);
+        reopened.close();
+    }
+
+    @Test
+    void crashAfterCompactionCopyBeforeHeadDeleteRecoversEachTaskOnce() throws IOException {
+        DeviceTaskLog log = fresh();
+        List<Long> sticky = new ArrayList<>();
+        // 옮겨 적는 양이 세그먼트 하나를 넘도록 채워서 compaction 도중 roll 이 일어나게 한다
+        for (int i = 0; i < 4; i++) sticky.add(log.append("jetson-" + i, task("sticky-" + i)));
+        Path head = firstSegment();
+        byte[] headBytes = Files.readAllBytes(head);
+
+        long lastId = churn(log, 60);
+        assertFalse(Files.exists(head), "head segment should be released after compaction");
+        log.close();
+
+        // 옮겨 적은 뒤 head 를 지우기 전에 죽은 상황: 같은 id 가 옛 세그먼트와 새 세그먼트에 모두 있다
+        Files.write(head, headBytes);
+        int segmentsWithStaleHead = segmentFiles().size();
+
+        DeviceTaskLog reopened = open();
+        Map<Long, DeviceTaskLog.Recovered> live = recover(reopened);
+        assertEquals(sticky, new ArrayList<>(live.keySet()));
+        assertEquals(sticky.size(), reopened.liveCount());
+        for (int i = 0; i < sticky.size(); i++) {
+            assertEquals("jetson-" + i, live.get(sticky.get(i)).deviceId());
+        }
+        // 옛 head 의 작업은 모두 나중 사본이 이겼으므로 복구하면서 바로 지워진다
+        assertFalse(Files.exists(head));
+        assertEquals(segmentsWithStaleHead - 1, reopened.segmentCount());
+        assertTrue(reopened.append("jetson-1", task("next")) > lastId);
+        reopened.close();
+
+        DeviceTaskLog again = open();
+        assertEquals(sticky.size() + 1, recover(again).size());
+        again.close();
+    }
+
+    // 넣자마자 처리하는 작업으로 세그먼트를 계속 넘긴다. 마지막 id 반환
+    private static long churn(DeviceTaskLog log, int count) {
+        long id = 0;
+        for (int i = 0; i < count; i++) {
+            id = log.append("jetson-9", task("churn-" + i));
+            log.remove(id);
+        }
+        return id;
+    }
+
+    // 빈 디렉터리에서 새로 시작 (recover 를 먼저 불러야 쓸 수 있다)
+    private DeviceTaskLog fresh() throws IOException {
+        DeviceTaskLog log = open();
+        assertTrue(log.recover().isEmpty());
+        return log;
+    }
+
+    private DeviceTaskLog open() {
+        return new DeviceTaskLog(dir.toString(), SEGMENT_BYTES, MAX_SEGMENTS, 1000);
+    }
+
+    private static Map<Long, DeviceTaskLog.Recovered> recover(DeviceTaskLog log) throws IOException {
+        Map<Long, DeviceTaskLog.Recovered> bySeq = new TreeMap<>();
+        for (DeviceTaskLog.Recovered r : log.recover()) {
+            assertNull(bySeq.put(r.task().getSeq(), r), "duplicate seq " + r.task().getSeq());
+        }
+        return bySeq;
+    }
+
+    private static DeviceTask task(String text) {
+        return DeviceTask.builder()
+                .taskId("task-" + text)
+                .type("PLAY_AUDIO")
+                .audioUrl("https://cdn.eyedia.app/tts/ab/cd/" + "0".repeat(64) + ".mp3")
+                .text(text)
+                .groupId("group-" + text)
+                .createdAt(1_700_000_000_000L)
+                .expiresAt(expiresAt(text))
+                .build();
+    }
+
+    private static long expiresAt(String text) {
+        return 1_700_000_060_000L + text.hashCode();
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(f -> f.getFileName().toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private Path onlySegment() throws IOException {
+        List<Path> files = segmentFiles();
+        assertEquals(1, files.size());
+        return files.get(0);
+    }
+
+    private Path firstSegment() throws IOException {
+        return segmentFiles().get(0);
+    }
+
+    // [길이][CRC][본문] 레코드 시작 위치들
+    private static List<Integer> recordOffsets(Path segment) throws IOException {
+        List<Integer> offsets = new ArrayList<>();
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer buf = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            int at = 0;
+            while (at + 8 <= buf.limit() && buf.getInt(at) > 0) {
+                offsets.add(at);
+                at += 8 + buf.getInt(at);
+            }
+        }
+        return offsets;
+    }
+
+    private static void writeInt(Path segment, int at, int value) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            ch.write(ByteBuffer.allocate(4).putInt(0, value), at);
+        }
+    }
+
+    private static void flipByte(Path segment, int at) throws IOException {
+        try (FileChannel ch = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer one = ByteBuffer.allocate(1);
+            ch.read(one, at);
+            one.put(0, (byte) ~one.get(0));
+            ch.write(one.rewind(), at);
+        }
+    }
+}